@@ -11,6 +11,24 @@ static final int[] CIRCULAR_ARRAY = new int[100];
 void main(String... args) {
     var input = args.length > 0 ? args[0] : "Day01.test";
 
+    if (args.length > 1) {
+        try {
+            long[] zeroCounts = switch (args[1]) {
+                case "stream" -> DialStream.scan(Path.of(input));
+                case "parallel" -> DialScan.scan(Path.of(input));
+                default -> throw new IllegalArgumentException("Invalid mode: " + args[1]);
+            };
+            println("""
+                    Part 1: %s
+                    Part 2: %s
+                    """
+                    .formatted(zeroCounts[0], zeroCounts[1]));
+        } catch (IOException e) {
+            err.println("Unable to read input file '" + input + "': " + e.getMessage());
+        }
+        return;
+    }
+
     try (Stream<String> lineStream = Files.lines(Path.of(input))) {
         List<String> lines = lineStream.toList();
         println("""
@@ -67,23 +85,8 @@ static final class Part2 implements Part {
         var zeroCount = 0;
 
         for (var step : steps) {
-            int currentPointer = pointer;
-            int newPointer = movePointer(currentPointer, step);
-            int zerosPassed = 0;
-
-            if (step > 0) { // Moving right
-                zerosPassed = (currentPointer + step - 1) / CIRCULAR_ARRAY.length;
-            } else if (step < 0) { // Moving left
-                zerosPassed = Math.floorDiv(currentPointer - 1, CIRCULAR_ARRAY.length)
-                        - Math.floorDiv(currentPointer + step, CIRCULAR_ARRAY.length);
-            }
-
-            if (newPointer == 0) {
-                zerosPassed++;
-            }
-
-            zeroCount += zerosPassed;
-            pointer = newPointer;
+            zeroCount += zerosPassed(pointer, step);
+            pointer = movePointer(pointer, step);
         }
 
         return String.valueOf(zeroCount);
@@ -104,3 +107,217 @@ static int movePointer(int currentPointer, int steps) {
 
     return (currentPointer + steps) % CIRCULAR_ARRAY.length;
 }
+
+// Counts the clicks that point at zero while moving, including the final position.
+static int zerosPassed(int currentPointer, int step) {
+    int zerosPassed = 0;
+
+    if (step > 0) { // Moving right
+        zerosPassed = (currentPointer + step - 1) / CIRCULAR_ARRAY.length;
+    } else if (step < 0) { // Moving left
+        zerosPassed = Math.floorDiv(currentPointer - 1, CIRCULAR_ARRAY.length)
+                - Math.floorDiv(currentPointer + step, CIRCULAR_ARRAY.length);
+    }
+
+    if (movePointer(currentPointer, step) == 0) {
+        zerosPassed++;
+    }
+
+    return zerosPassed;
+}
+
+/**
+ * Single pass over a memory-mapped rotation log that answers both parts at once.
+ * <p>
+ * The direction byte and digits are parsed straight from the mapped segment and the dial
+ * lives in primitive locals, so heap usage does not depend on the size of the file.
+ */
+static final class DialStream {
+
+    static long[] scan(Path input) throws IOException {
+        try (var channel = FileChannel.open(input, StandardOpenOption.READ);
+             var arena = Arena.ofConfined()) {
+            var segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            return scan(segment);
+        }
+    }
+
+    static long[] scan(MemorySegment segment) {
+        int pointer = 50;
+        long landedOnZero = 0;
+        long passedZero = 0;
+
+        int sign = 0;
+        int distance = 0;
+        long size = segment.byteSize();
+
+        for (long offset = 0; offset <= size; offset++) {
+            byte b = offset < size ? segment.get(ValueLayout.JAVA_BYTE, offset) : (byte) '\n';
+            switch (b) {
+                case 'R' -> sign = 1;
+                case 'L' -> sign = -1;
+                case '\n' -> {
+                    if (sign != 0) {
+                        int step = sign * distance;
+                        passedZero += zerosPassed(pointer, step);
+                        pointer = movePointer(pointer, step);
+                        if (pointer == 0)
+                            landedOnZero++;
+                    }
+                    sign = 0;
+                    distance = 0;
+                }
+                default -> {
+                    if (b >= '0' && b <= '9')
+                        distance = distance * 10 + (b - '0');
+                }
+            }
+        }
+
+        return new long[] { landedOnZero, passedZero };
+    }
+}
+
+/**
+ * Parallel evaluation of a memory-mapped rotation log.
+ * <p>
+ * The file is cut into chunks at line boundaries and each chunk is reduced to a
+ * {@link DialSummary} on its own core. Summaries compose associatively, so folding them
+ * in file order gives exactly the answers of the sequential dial.
+ */
+static final class DialScan {
+
+    static long[] scan(Path input) throws IOException {
+        try (var channel = FileChannel.open(input, StandardOpenOption.READ);
+             var arena = Arena.ofShared()) {
+            var segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            return scan(segment, Runtime.getRuntime().availableProcessors() * 4);
+        }
+    }
+
+    static long[] scan(MemorySegment segment, int chunks) {
+        long[] bounds = lineAlignedBounds(segment, chunks);
+
+        var summary = IntStream.range(0, bounds.length - 1)
+                .parallel()
+                .mapToObj(i -> DialSummary.of(segment, bounds[i], bounds[i + 1]))
+                .reduce(DialSummary.IDENTITY, DialSummary::then);
+
+        return new long[] { summary.landed()[50], summary.passed()[50] };
+    }
+
+    // Chunk boundaries, each moved forward to just after the next newline.
+    private static long[] lineAlignedBounds(MemorySegment segment, int chunks) {
+        long size = segment.byteSize();
+        long[] bounds = new long[chunks + 1];
+        bounds[chunks] = size;
+
+        for (int i = 1; i < chunks; i++) {
+            long offset = Math.max(bounds[i - 1], size * i / chunks);
+            while (offset > 0 && offset < size && segment.get(ValueLayout.JAVA_BYTE, offset - 1) != '\n') {
+                offset++;
+            }
+            bounds[i] = offset;
+        }
+
+        return bounds;
+    }
+}
+
+/**
+ * The effect of a run of rotations on every possible start position of the dial.
+ * <p>
+ * {@code landed[s]} and {@code passed[s]} are the Part 1 and Part 2 zero counts when the
+ * run starts at position {@code s}, and {@code offset} is the net rotation.
+ */
+record DialSummary(int offset, long[] landed, long[] passed) {
+
+    static final DialSummary IDENTITY = new DialSummary(
+            0, new long[CIRCULAR_ARRAY.length], new long[CIRCULAR_ARRAY.length]);
+
+    DialSummary then(DialSummary next) {
+        int size = CIRCULAR_ARRAY.length;
+        long[] landed = new long[size];
+        long[] passed = new long[size];
+
+        for (int start = 0; start < size; start++) {
+            int middle = (start + offset) % size;
+            landed[start] = this.landed[start] + next.landed[middle];
+            passed[start] = this.passed[start] + next.passed[middle];
+        }
+
+        return new DialSummary((offset + next.offset) % size, landed, passed);
+    }
+
+    /**
+     * Summarises the rotations in {@code [from, to)} in one pass, independent of the start.
+     * <p>
+     * With the unwrapped position {@code x = start + prefix}, a rotation hits zero
+     * {@code floor((x + step) / 100) - floor(x / 100)} times moving right and
+     * {@code floor((x - 1) / 100) - floor((x + step - 1) / 100)} times moving left. Each
+     * {@code floor((start + c) / 100)} term is {@code floor(c / 100)} plus one for the
+     * starts {@code >= 100 - c mod 100}, so the terms fold into a constant and a
+     * difference array over the start positions.
+     */
+    static DialSummary of(MemorySegment segment, long from, long to) {
+        int size = CIRCULAR_ARRAY.length;
+        long[] landedAt = new long[size];
+        long[] idleAt = new long[size];
+        long[] startDelta = new long[size + 1];
+        long base = 0;
+        long prefix = 0;
+
+        int sign = 0;
+        int distance = 0;
+
+        for (long offset = from; offset <= to; offset++) {
+            byte b = offset < to ? segment.get(ValueLayout.JAVA_BYTE, offset) : (byte) '\n';
+            switch (b) {
+                case 'R' -> sign = 1;
+                case 'L' -> sign = -1;
+                case '\n' -> {
+                    if (sign != 0) {
+                        long step = (long) sign * distance;
+                        if (step > 0) {
+                            base += floorTerm(prefix + step, 1, startDelta) + floorTerm(prefix, -1, startDelta);
+                        } else if (step < 0) {
+                            base += floorTerm(prefix - 1, 1, startDelta) + floorTerm(prefix + step - 1, -1, startDelta);
+                        } else {
+                            // movePointer() leaves the dial in place; it still counts if that is zero.
+                            idleAt[(int) Math.floorMod(prefix, size)]++;
+                        }
+                        prefix += step;
+                        landedAt[(int) Math.floorMod(prefix, size)]++;
+                    }
+                    sign = 0;
+                    distance = 0;
+                }
+                default -> {
+                    if (b >= '0' && b <= '9')
+                        distance = distance * 10 + (b - '0');
+                }
+            }
+        }
+
+        long[] landed = new long[size];
+        long[] passed = new long[size];
+        long shift = 0;
+        for (int start = 0; start < size; start++) {
+            shift += startDelta[start];
+            int hit = (size - start) % size;
+            landed[start] = landedAt[hit];
+            passed[start] = base + shift + idleAt[hit];
+        }
+
+        return new DialSummary((int) Math.floorMod(prefix, size), landed, passed);
+    }
+
+    // Adds sign * floor((start + c) / 100): records the start-dependent part, returns the rest.
+    private static long floorTerm(long c, int sign, long[] startDelta) {
+        int size = CIRCULAR_ARRAY.length;
+        int remainder = (int) Math.floorMod(c, size);
+        if (remainder > 0)
+            startDelta[size - remainder] += sign;
+        return sign * Math.floorDiv(c, size);
+    }
+}
@@ -6,13 +6,17 @@ import static java.lang.System.err;
  */
 void main(String... args) {
     var input = args.length > 0 ? args[0] : "Day02.test";
+    // "brute" checks every ID in parallel; useful to cross-check the closed form.
+    var bruteForce = args.length > 1 && args[1].equals("brute");
 
     try (Stream<String> lineStream = Files.lines(Path.of(input))) {
         List<String> lines = lineStream.toList();
         println("""
                 Part 1: %s
                 Part 2: %s
-                """.formatted(solve(1, lines), solve(2, lines)));
+                """.formatted(
+                bruteForce ? BruteForce.solve(1, lines) : solve(1, lines),
+                bruteForce ? BruteForce.solve(2, lines) : solve(2, lines)));
     } catch (IOException e) {
         err.println("Unable to read input file '" + input + "': " + e.getMessage());
     }
@@ -30,27 +34,11 @@ static final class Part1 implements Part {
                 .flatMap(line -> Arrays.stream(line.split("[,-]")))
                 .map(Long::parseLong)
                 .gather(Gatherers.windowFixed(2))
-                // .peek(it -> IO.print(it + " - "))
-                .map(window -> LongStream.rangeClosed(window.get(0), window.get(1))
-                        .filter(num -> String.valueOf(num).length() % 2 == 0)
-                        .filter(this::containsInvalidId)
-                        // .peek(id -> IO.print(id + ","))
-                        .sum())
-                // .peek(IO::println)
-                .reduce(0L, Long::sum);
+                .map(window -> RepeatedIds.sumDoubled(window.get(0), window.get(1)))
+                .reduce(BigInteger.ZERO, BigInteger::add);
 
         return String.valueOf(sumOfInvalidIds);
     }
-
-    private boolean containsInvalidId(long id) {
-        var idString = String.valueOf(id);
-
-        int length = idString.length();
-        var firstHalf = idString.substring(0, length / 2);
-        var secondHalf = idString.substring(length / 2);
-
-        return firstHalf.equals(secondHalf);
-    }
 }
 
 static final class Part2 implements Part {
@@ -61,36 +49,192 @@ static final class Part2 implements Part {
                 .flatMap(line -> Arrays.stream(line.split("[,-]")))
                 .map(Long::parseLong)
                 .gather(Gatherers.windowFixed(2))
-                // .peek(it -> IO.print(it + " - "))
-                .map(window -> LongStream.rangeClosed(window.get(0), window.get(1))
-                        .filter(this::containsRepeatedString)
-                        // .peek(id -> IO.print(id + ","))
-                        .sum())
-                // .peek(IO::println)
-                .reduce(0L, Long::sum);
+                .map(window -> RepeatedIds.sumRepeated(window.get(0), window.get(1)))
+                .reduce(BigInteger.ZERO, BigInteger::add);
 
         return String.valueOf(sumOfInvalidIds);
     }
+}
 
-    boolean containsRepeatedString(Long id) {
-        var idString = String.valueOf(id);
+/**
+ * Closed-form sums of repeated-digit IDs.
+ * <p>
+ * A block {@code B} of {@code L} digits repeated {@code k} times equals {@code B * M}
+ * with {@code M = 10^((k-1)L) + ... + 10^L + 1}, so the repeated IDs of one shape inside
+ * {@code [lo, hi]} are the multiples of {@code M} whose block still has {@code L} digits.
+ * Their sum is an arithmetic series, which makes the cost depend on the number of digits
+ * instead of the width of the range.
+ */
+static final class RepeatedIds {
 
-        Set<Long> invalidIds = new HashSet<>();
+    // 10^0 .. 10^18, every power that fits in a long.
+    static final long[] POW10 = new long[19];
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+    }
+
+    /**
+     * Sums the IDs in {@code [lo, hi]} made of one block repeated exactly twice (Part 1).
+     */
+    static BigInteger sumDoubled(long lo, long hi) {
+        var sum = BigInteger.ZERO;
+        for (int digits = 2; digits <= 18; digits += 2) {
+            sum = sum.add(sumWithPeriod(lo, hi, digits, digits / 2));
+        }
+        return sum;
+    }
 
-        for (int j = 1; j <= idString.length() / 2; j++) {
-            String left = idString.substring(0, j);
-            String right = idString.substring(j);
-            if (right.length() % left.length() != 0) {
-                continue;
+    /**
+     * Sums the IDs in {@code [lo, hi]} made of one block repeated at least twice (Part 2).
+     * <p>
+     * An ID such as 1111 is "11" x 2 as well as "1" x 4, so the shapes of one digit count
+     * overlap. Every repeated {@code D}-digit ID has period {@code D / p} for some prime
+     * {@code p} dividing {@code D}, and the IDs with periods {@code D / p} and {@code D / q}
+     * are exactly those with period {@code D / pq}. Inclusion-exclusion over the (at most
+     * two) distinct prime factors of {@code D} therefore counts each ID once.
+     */
+    static BigInteger sumRepeated(long lo, long hi) {
+        var sum = BigInteger.ZERO;
+        for (int digits = 2; digits <= 19; digits++) {
+            int[] primes = primeFactors(digits);
+            for (int subset = 1; subset < 1 << primes.length; subset++) {
+                int product = 1;
+                for (int i = 0; i < primes.length; i++) {
+                    if ((subset & 1 << i) != 0)
+                        product *= primes[i];
+                }
+                var term = sumWithPeriod(lo, hi, digits, digits / product);
+                sum = Integer.bitCount(subset) % 2 == 1
+                        ? sum.add(term)
+                        : sum.subtract(term);
             }
+        }
+        return sum;
+    }
+
+    /**
+     * Sums the {@code digits}-digit IDs in {@code [lo, hi]} that repeat a block of
+     * {@code period} digits, where {@code period} divides {@code digits}.
+     */
+    static BigInteger sumWithPeriod(long lo, long hi, int digits, int period) {
+        long from = Math.max(lo, POW10[digits - 1]);
+        long to = digits < POW10.length ? Math.min(hi, POW10[digits] - 1) : hi;
+        if (from > to)
+            return BigInteger.ZERO;
+
+        long multiplier = 0;
+        for (int shift = 0; shift < digits; shift += period) {
+            multiplier += POW10[shift];
+        }
+
+        long firstBlock = Math.max(Math.ceilDiv(from, multiplier), POW10[period - 1]);
+        long lastBlock = Math.min(to / multiplier, POW10[period] - 1);
+        if (firstBlock > lastBlock)
+            return BigInteger.ZERO;
+
+        // multiplier * (firstBlock + lastBlock) * count / 2
+        return BigInteger.valueOf(firstBlock).add(BigInteger.valueOf(lastBlock))
+                .multiply(BigInteger.valueOf(lastBlock - firstBlock + 1))
+                .shiftRight(1)
+                .multiply(BigInteger.valueOf(multiplier));
+    }
+
+    private static int[] primeFactors(int n) {
+        return IntStream.rangeClosed(2, n)
+                .filter(p -> n % p == 0)
+                .filter(p -> IntStream.range(2, p).noneMatch(q -> p % q == 0))
+                .toArray();
+    }
+}
+
+/**
+ * Checks every ID of each range, splitting wide ranges into fork-join subranges.
+ * <p>
+ * The per-ID checks only use long arithmetic, so the hot loop allocates nothing.
+ */
+static final class BruteForce {
 
-            var repeat = right.length() / left.length();
-            if (right.equals(left.repeat(repeat))) {
-                invalidIds.add(id);
+    static String solve(int part, List<String> lines) {
+        var sumOfInvalidIds = lines.stream()
+                .flatMap(line -> Arrays.stream(line.split("[,-]")))
+                .map(Long::parseLong)
+                .gather(Gatherers.windowFixed(2))
+                .mapToLong(window -> ForkJoinPool.commonPool()
+                        .invoke(new RangeTask(window.get(0), window.get(1), part)))
+                .sum();
+
+        return String.valueOf(sumOfInvalidIds);
+    }
+
+    static final class RangeTask extends RecursiveTask<Long> {
+
+        private static final long THRESHOLD = 1 << 16;
+
+        private final long lo;
+        private final long hi;
+        private final int part;
+
+        RangeTask(long lo, long hi, int part) {
+            this.lo = lo;
+            this.hi = hi;
+            this.part = part;
+        }
+
+        @Override
+        protected Long compute() {
+            if (hi - lo < THRESHOLD) {
+                long sum = 0;
+                // Counts down instead of testing id <= hi, which never fails for Long.MAX_VALUE.
+                long id = lo;
+                for (long remaining = hi - lo + 1; remaining > 0; remaining--, id++) {
+                    if (part == 1 ? isDoubled(id) : isRepeated(id))
+                        sum += id;
+                }
+                return sum;
             }
+
+            long mid = lo + (hi - lo) / 2;
+            var left = new RangeTask(lo, mid, part);
+            left.fork();
+            long right = new RangeTask(mid + 1, hi, part).compute();
+            return left.join() + right;
+        }
+    }
+
+    static boolean isDoubled(long id) {
+        int digits = digitCount(id);
+        return digits % 2 == 0 && hasPeriod(id, digits, digits / 2);
+    }
+
+    static boolean isRepeated(long id) {
+        int digits = digitCount(id);
+        for (int period = 1; period <= digits / 2; period++) {
+            if (digits % period == 0 && hasPeriod(id, digits, period))
+                return true;
+        }
+        return false;
+    }
+
+    // The low block times the repeat multiplier rebuilds the ID only if every block is equal.
+    private static boolean hasPeriod(long id, int digits, int period) {
+        long blockSize = RepeatedIds.POW10[period];
+        long multiplier = 0;
+        for (int shift = 0; shift < digits; shift += period) {
+            multiplier += RepeatedIds.POW10[shift];
         }
+        return id % blockSize * multiplier == id;
+    }
 
-        return invalidIds.contains(id);
+    private static int digitCount(long id) {
+        int digits = 1;
+        while (digits < RepeatedIds.POW10.length && id >= RepeatedIds.POW10[digits]) {
+            digits++;
+        }
+        return digits;
     }
 }
 
@@ -7,8 +7,38 @@ import static java.lang.System.err;
 void main(String... args) {
     var input = args.length > 0 ? args[0] : "Day03.test";
 
+    if (args.length > 1 && args[1].equals("parallel")) {
+        try {
+            long startNanos = System.nanoTime();
+            long[] sums = BankScan.scan(Path.of(input));
+            double seconds = (System.nanoTime() - startNanos) / 1e9;
+            println("""
+                    Part 1: %s
+                    Part 2: %s
+                    Throughput: %.2f GB/s
+                    """.formatted(
+                    sums[0],
+                    sums[1],
+                    Files.size(Path.of(input)) / 1e9 / seconds));
+        } catch (IOException e) {
+            err.println("Unable to read input file '" + input + "': " + e.getMessage());
+        }
+        return;
+    }
+
     try (Stream<String> lineStream = Files.lines(Path.of(input))) {
         List<String> lines = lineStream.toList();
+
+        // "whatif 2,12,300" prints the total joltage of all banks for each battery count.
+        if (args.length > 2 && args[1].equals("whatif")) {
+            int[] batteries = Arrays.stream(args[2].split(",")).mapToInt(Integer::parseInt).toArray();
+            BigInteger[] totals = JoltageIndex.totals(lines, batteries);
+            for (int i = 0; i < batteries.length; i++) {
+                println("k=%d: %s".formatted(batteries[i], totals[i]));
+            }
+            return;
+        }
+
         println("""
                 Part 1: %s
                 Part 2: %s
@@ -26,83 +56,234 @@ sealed interface Part permits Part1, Part2 {
 
 final static class Part1 implements Part {
 
+    static final int BATTERIES = 2;
+
     @Override
     public String compute(List<String> lines) {
+        long sum = lines.stream()
+                .mapToLong(line -> Joltage.highest(line.getBytes(StandardCharsets.ISO_8859_1), BATTERIES))
+                .sum();
+
+        return String.valueOf(sum);
+    }
+}
+
+final static class Part2 implements Part {
+
+    static final int BATTERIES = 12;
 
-        int sum = lines.stream()
-                .mapToInt(this::findHighestJoltage)
+    @Override
+    public String compute(List<String> lines) {
+        long sum = lines.stream()
+                .mapToLong(line -> Joltage.highest(line.getBytes(StandardCharsets.ISO_8859_1), BATTERIES))
                 .sum();
 
         return String.valueOf(sum);
     }
+}
+
+/**
+ * Picks the highest joltage of a bank by choosing {@code k} of its digits in order.
+ * <p>
+ * A monotonic stack keeps the best prefix seen so far: a digit pops smaller digits off
+ * the stack while enough digits remain to refill it, which makes the selection O(n) for
+ * any {@code k}. Banks are read as ASCII bytes, no per-digit objects are created.
+ */
+static final class Joltage {
+
+    /**
+     * Writes the highest {@code k}-digit subsequence of {@code bank[from, to)} into
+     * {@code out}, returning {@code false} if the bank has fewer than {@code k} digits.
+     */
+    static boolean select(byte[] bank, int from, int to, int k, byte[] out) {
+        if (to - from < k)
+            return false;
 
-    int findHighestJoltage(String s) {
-        // 1: Find the first, leftmost highest digit, excluding the last position.
-        var firstSubstring = s.substring(0, s.length() - 1);
+        int drops = to - from - k;
+        int size = 0;
 
-        int firstMaxDigt = Arrays.stream(firstSubstring.split(""))
-                .mapToInt(Integer::parseInt)
-                .max()
-                .orElse(-1);
+        for (int i = from; i < to; i++) {
+            byte digit = bank[i];
+            while (size > 0 && drops > 0 && out[size - 1] < digit) {
+                size--;
+                drops--;
+            }
 
-        if (firstMaxDigt == -1)
+            if (size < k) {
+                out[size++] = digit;
+            } else {
+                drops--;
+            }
+        }
+
+        return true;
+    }
+
+    // Joltage of up to 18 batteries, which always fits in a long.
+    static long highest(byte[] bank, int k) {
+        return highest(bank, 0, bank.length, k, new byte[k]);
+    }
+
+    static long highest(byte[] bank, int from, int to, int k, byte[] scratch) {
+        if (!select(bank, from, to, k, scratch))
             return 0;
 
-        // 2: Find the second highest digit starting from the position of
-        // firstMaxDigitPos.
-        int firstMaxDigitPos = s.indexOf(String.valueOf(firstMaxDigt)) + 1;
-        var secondSubstring = s.substring(firstMaxDigitPos);
+        long joltage = 0;
+        for (int i = 0; i < k; i++) {
+            joltage = joltage * 10 + (scratch[i] - '0');
+        }
+        return joltage;
+    }
+
+    // Joltage of any number of batteries as a digit string.
+    static String highestDigits(byte[] bank, int k) {
+        byte[] out = new byte[k];
+        return select(bank, 0, bank.length, k, out)
+                ? new String(out, StandardCharsets.ISO_8859_1)
+                : "0";
+    }
+}
+
+/**
+ * Reusable per-bank index that answers the highest joltage for many battery counts.
+ * <p>
+ * For every digit it stores the next position holding that digit, so the leftmost maximum
+ * of any suffix window is found by probing the digits from 9 down. Each battery count
+ * {@code k} then costs O(10k) instead of another scan of the bank.
+ */
+static final class JoltageIndex {
+
+    private final byte[] bank;
+    private final int[] next;
 
-        int secondMaxDigit = Arrays.stream(secondSubstring.split(""))
-                .mapToInt(Integer::parseInt)
-                .max()
-                .orElse(-1);
+    JoltageIndex(byte[] bank) {
+        this.bank = bank;
+        int n = bank.length;
+        this.next = new int[10 * (n + 1)];
+
+        for (int digit = 0; digit < 10; digit++) {
+            next[digit * (n + 1) + n] = n;
+        }
+        for (int pos = n - 1; pos >= 0; pos--) {
+            for (int digit = 0; digit < 10; digit++) {
+                next[digit * (n + 1) + pos] = bank[pos] - '0' == digit
+                        ? pos
+                        : next[digit * (n + 1) + pos + 1];
+            }
+        }
+    }
+
+    // The digits of the highest joltage using k batteries, or "0" if the bank is too short.
+    String highest(int k) {
+        int n = bank.length;
+        if (n < k)
+            return "0";
+
+        byte[] out = new byte[k];
+        int pos = 0;
+        for (int i = 0; i < k; i++) {
+            // The i-th pick must leave k - i - 1 digits to its right.
+            int last = n - (k - i);
+            for (int digit = 9; digit >= 0; digit--) {
+                int found = next[digit * (n + 1) + pos];
+                if (found <= last) {
+                    out[i] = bank[found];
+                    pos = found + 1;
+                    break;
+                }
+            }
+        }
+        return new String(out, StandardCharsets.ISO_8859_1);
+    }
 
-        return secondMaxDigit == -1
-                ? 0
-                : firstMaxDigt * 10 + secondMaxDigit;
+    String[] highest(int... batteries) {
+        return Arrays.stream(batteries)
+                .mapToObj(this::highest)
+                .toArray(String[]::new);
+    }
+
+    // Sum over all banks of the highest joltage for each requested battery count.
+    static BigInteger[] totals(List<String> lines, int... batteries) {
+        BigInteger[] totals = new BigInteger[batteries.length];
+        Arrays.fill(totals, BigInteger.ZERO);
+
+        for (String line : lines) {
+            String[] joltages = new JoltageIndex(line.getBytes(StandardCharsets.ISO_8859_1)).highest(batteries);
+            for (int i = 0; i < batteries.length; i++) {
+                totals[i] = totals[i].add(new BigInteger(joltages[i]));
+            }
+        }
+        return totals;
     }
 }
 
-final static class Part2 implements Part {
+/**
+ * Parallel evaluation of a memory-mapped bank list.
+ * <p>
+ * The file is cut at newline boundaries into chunks of at most {@link #MAX_CHUNK} bytes,
+ * enough of them to keep every core busy. Each chunk is copied once into a byte array and
+ * its banks are evaluated in place, so no per-line Strings are created.
+ */
+static final class BankScan {
 
-    private static final int RIGHT_PADDING = 12;
+    private static final long MAX_CHUNK = 16 << 20;
 
-    @Override
-    public String compute(List<String> lines) {
-        long sum = lines.stream()
-                .mapToLong(this::findHighestJoltageOfTwelve)
-                .sum();
+    // Part 1 and Part 2 sums.
+    static long[] scan(Path input) throws IOException {
+        try (var channel = FileChannel.open(input, StandardOpenOption.READ);
+             var arena = Arena.ofShared()) {
+            var segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            int chunks = (int) Math.max(
+                    Runtime.getRuntime().availableProcessors() * 4L,
+                    Math.ceilDiv(segment.byteSize(), MAX_CHUNK));
+            long[] bounds = lineAlignedBounds(segment, chunks);
 
-        return String.valueOf(sum);
+            return IntStream.range(0, chunks)
+                    .parallel()
+                    .mapToObj(i -> scanChunk(segment.asSlice(bounds[i], bounds[i + 1] - bounds[i])))
+                    .reduce(new long[2], (a, b) -> new long[] { a[0] + b[0], a[1] + b[1] });
+        }
     }
 
-    long findHighestJoltageOfTwelve(String s) {
-        var digits = s.chars()
-                .map(Character::getNumericValue)
-                .boxed()
-                .toList();
+    private static long[] scanChunk(MemorySegment chunk) {
+        byte[] banks = chunk.toArray(ValueLayout.JAVA_BYTE);
+        byte[] scratch = new byte[Math.max(Part1.BATTERIES, Part2.BATTERIES)];
+        long part1 = 0;
+        long part2 = 0;
 
-        var currentIndex = 0;
-        long max = 0;
+        int from = 0;
+        while (from < banks.length) {
+            int to = from;
+            while (to < banks.length && banks[to] != '\n') {
+                to++;
+            }
 
-        for (int i = RIGHT_PADDING - 1; i >= 0; i--) {
-            int rightBound = digits.size() - i;
-            var window = digits.subList(currentIndex, rightBound);
+            int end = to > from && banks[to - 1] == '\r' ? to - 1 : to;
+            if (end > from) {
+                part1 += Joltage.highest(banks, from, end, Part1.BATTERIES, scratch);
+                part2 += Joltage.highest(banks, from, end, Part2.BATTERIES, scratch);
+            }
+            from = to + 1;
+        }
 
-            int localMax = window.stream()
-                    .mapToInt(Integer::intValue)
-                    .max()
-                    .orElseThrow();
+        return new long[] { part1, part2 };
+    }
 
-            int nextIndex = currentIndex + digits.subList(currentIndex, rightBound)
-                    .indexOf(localMax) + 1;
+    // Chunk boundaries, each moved forward to just after the next newline.
+    private static long[] lineAlignedBounds(MemorySegment segment, int chunks) {
+        long size = segment.byteSize();
+        long[] bounds = new long[chunks + 1];
+        bounds[chunks] = size;
 
-            max = max * 10 + localMax;
-            currentIndex = nextIndex;
+        for (int i = 1; i < chunks; i++) {
+            long offset = Math.max(bounds[i - 1], size * i / chunks);
+            while (offset > 0 && offset < size && segment.get(ValueLayout.JAVA_BYTE, offset - 1) != '\n') {
+                offset++;
+            }
+            bounds[i] = offset;
         }
 
-        return max;
+        return bounds;
     }
 }
 
@@ -7,8 +7,25 @@ import static java.lang.System.err;
 void main(String... args) {
     var input = args.length > 0 ? args[0] : "Day04.test";
 
+    // "tiled" runs Part 2 on tiles in parallel, for grids too large to hold as lines.
+    if (args.length > 1 && args[1].equals("tiled")) {
+        try {
+            println("Part 2: " + TiledRemoval.removeAll(Path.of(input)));
+        } catch (IOException e) {
+            err.println("Unable to read input file '" + input + "': " + e.getMessage());
+        }
+        return;
+    }
+
     try (Stream<String> lineStream = Files.lines(Path.of(input))) {
         List<String> lines = lineStream.toList();
+
+        // "waves" lists how many rolls each removal wave of Part 2 takes out.
+        if (args.length > 1 && args[1].equals("waves")) {
+            println("Removed per wave: " + Arrays.toString(RemovalCascade.parse(lines).removeAll()));
+            return;
+        }
+
         println("""
                 Part 1: %s
                 Part 2: %s
@@ -25,100 +42,391 @@ sealed interface Part permits Part1, Part2 {
 }
 
 final static class Part1 implements Part {
-    record Point(int r, int c) {
+
+    public String compute(List<String> lines) {
+        return String.valueOf(BitGrid.parse(lines).countAccessible());
     }
+}
+
+final static class Part2 implements Part {
 
     public String compute(List<String> lines) {
-        char[][] grid = lines.stream()
-                .map(String::toCharArray)
-                .toArray(char[][]::new);
-
-        Set<Point> collectedRolls = new HashSet<>();
-
-        for (int r = 0; r < grid.length; r++) {
-            for (int c = 0; c < grid[r].length; c++) {
-                if (grid[r][c] == '@') {
-                    long atNeighborCount = 0;
-                    for (int dr = -1; dr <= 1; dr++) {
-                        for (int dc = -1; dc <= 1; dc++) {
-                            if (dr == 0 && dc == 0)
-                                continue;
-
-                            int neighborR = r + dr;
-                            int neighborC = c + dc;
-
-                            if (neighborR >= 0 && neighborR < grid.length &&
-                                    neighborC >= 0 && neighborC < grid[r].length) {
-                                if (grid[neighborR][neighborC] == '@') {
-                                    atNeighborCount++;
-                                }
-                            }
-                        }
-                    }
+        long removedRolls = Arrays.stream(RemovalCascade.parse(lines).removeAll()).sum();
 
-                    Point currentPoint = new Point(r, c);
-                    if (atNeighborCount < 4) {
-                        collectedRolls.add(currentPoint);
-                    } else {
-                        collectedRolls.remove(currentPoint);
-                    }
+        return String.valueOf(removedRolls);
+    }
+}
+
+/**
+ * The warehouse map packed into {@code long} words, one bit per cell, 64 cells per word.
+ * <p>
+ * Neighbour counts are computed a word at a time: the eight shifted neighbour masks are
+ * summed by an adder network of bitwise operations, so the "fewer than 4 neighbours" test
+ * for 64 cells is a handful of word operations and counts come from {@link Long#bitCount}.
+ */
+static final class BitGrid {
+
+    // A roll with fewer neighbours than this can be reached by a forklift.
+    static final int MAX_NEIGHBORS = 4;
+
+    final int width;
+    final long[][] rows;
+
+    private BitGrid(int width, long[][] rows) {
+        this.width = width;
+        this.rows = rows;
+    }
+
+    static BitGrid parse(List<String> lines) {
+        int width = lines.stream().mapToInt(String::length).max().orElse(0);
+        int words = Math.ceilDiv(width, 64);
+        long[][] rows = new long[lines.size()][words];
+
+        for (int r = 0; r < lines.size(); r++) {
+            String line = lines.get(r);
+            for (int c = 0; c < line.length(); c++) {
+                if (line.charAt(c) == '@')
+                    rows[r][c >>> 6] |= 1L << c;
+            }
+        }
+
+        return new BitGrid(width, rows);
+    }
+
+    /**
+     * Reads the map straight from a memory-mapped file, without holding its lines.
+     */
+    static BitGrid read(Path input) throws IOException {
+        try (var channel = FileChannel.open(input, StandardOpenOption.READ);
+             var arena = Arena.ofShared()) {
+            var segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            long size = segment.byteSize();
+
+            var lineStarts = LongStream.builder();
+            lineStarts.add(0);
+            for (long offset = 0; offset < size; offset++) {
+                if (segment.get(ValueLayout.JAVA_BYTE, offset) == '\n')
+                    lineStarts.add(offset + 1);
+            }
+            long[] starts = lineStarts.build().toArray();
+            // Drop the empty line after a trailing newline.
+            int height = starts[starts.length - 1] == size ? starts.length - 1 : starts.length;
+
+            int width = (int) IntStream.range(0, height)
+                    .mapToLong(r -> lineEnd(starts, r, size) - starts[r])
+                    .max()
+                    .orElse(0);
+            long[][] rows = new long[height][Math.ceilDiv(width, 64)];
+
+            IntStream.range(0, height).parallel().forEach(r -> {
+                long end = lineEnd(starts, r, size);
+                for (long offset = starts[r]; offset < end; offset++) {
+                    int c = (int) (offset - starts[r]);
+                    if (segment.get(ValueLayout.JAVA_BYTE, offset) == '@')
+                        rows[r][c >>> 6] |= 1L << c;
                 }
+            });
+
+            return new BitGrid(width, rows);
+        }
+    }
+
+    private static long lineEnd(long[] starts, int r, long size) {
+        return r + 1 < starts.length ? starts[r + 1] - 1 : size;
+    }
+
+    long countAccessible() {
+        long count = 0;
+        for (int r = 0; r < rows.length; r++) {
+            for (int w = 0; w < rows[r].length; w++) {
+                count += Long.bitCount(accessible(r, w));
             }
         }
+        return count;
+    }
+
+    // The rolls of word w in row r that have fewer than MAX_NEIGHBORS neighbouring rolls.
+    long accessible(int r, int w) {
+        long[] up = r > 0 ? rows[r - 1] : null;
+        long[] middle = rows[r];
+        long[] down = r + 1 < rows.length ? rows[r + 1] : null;
+
+        long upWest = up != null ? west(up, w) : 0;
+        long upCenter = up != null ? up[w] : 0;
+        long upEast = up != null ? east(up, w) : 0;
+        long downWest = down != null ? west(down, w) : 0;
+        long downCenter = down != null ? down[w] : 0;
+        long downEast = down != null ? east(down, w) : 0;
+        long middleWest = west(middle, w);
+        long middleEast = east(middle, w);
 
-        return String.valueOf(collectedRolls.size());
+        // Per row, the neighbour count as a two-bit number (low, high).
+        long upLow = upWest ^ upCenter ^ upEast;
+        long upHigh = upWest & upCenter | upEast & (upWest ^ upCenter);
+        long downLow = downWest ^ downCenter ^ downEast;
+        long downHigh = downWest & downCenter | downEast & (downWest ^ downCenter);
+        long middleLow = middleWest ^ middleEast;
+        long middleHigh = middleWest & middleEast;
+
+        // The low bits add up to at most 3, carrying into the twos column at most once,
+        // so a cell reaches 4 exactly when two of the twos-column inputs are set.
+        long carry = upLow & downLow | middleLow & (upLow ^ downLow);
+        long fours = upHigh & (downHigh | middleHigh | carry)
+                | downHigh & (middleHigh | carry)
+                | middleHigh & carry;
+
+        return middle[w] & ~fours;
+    }
+
+    // Bit c is set if cell c - 1 holds a roll.
+    private static long west(long[] row, int w) {
+        return row[w] << 1 | (w > 0 ? row[w - 1] >>> 63 : 0);
+    }
+
+    // Bit c is set if cell c + 1 holds a roll.
+    private static long east(long[] row, int w) {
+        return row[w] >>> 1 | (w + 1 < row.length ? row[w + 1] << 63 : 0);
     }
 }
 
-final static class Part2 implements Part {
+/**
+ * Incremental Part 2: neighbour counts are computed once and only updated around removals.
+ * <p>
+ * Removing a roll decrements its neighbours, and a neighbour that drops below
+ * {@link BitGrid#MAX_NEIGHBORS} joins the queue for the next wave. Every roll is queued at
+ * most once, so the whole cascade costs O(cells).
+ */
+static final class RemovalCascade {
 
-    public String compute(List<String> lines) {
-        record Point(int r, int c) {
+    final int height;
+    final int width;
+    final boolean[] rolls;
+    final byte[] neighbors;
+
+    private RemovalCascade(int height, int width, boolean[] rolls) {
+        this.height = height;
+        this.width = width;
+        this.rolls = rolls;
+        this.neighbors = new byte[rolls.length];
+
+        int[] scratch = new int[9];
+        for (int cell = 0; cell < rolls.length; cell++) {
+            if (rolls[cell]) {
+                int[] around = neighborsOf(cell, scratch);
+                for (int i = 1; i <= around[0]; i++) {
+                    neighbors[around[i]]++;
+                }
+            }
         }
+    }
+
+    static RemovalCascade parse(List<String> lines) {
+        int width = lines.stream().mapToInt(String::length).max().orElse(0);
+        boolean[] rolls = new boolean[lines.size() * width];
+
+        for (int r = 0; r < lines.size(); r++) {
+            String line = lines.get(r);
+            for (int c = 0; c < line.length(); c++) {
+                rolls[r * width + c] = line.charAt(c) == '@';
+            }
+        }
+
+        return new RemovalCascade(lines.size(), width, rolls);
+    }
 
-        char[][] grid = lines.stream()
-                .map(String::toCharArray)
-                .toArray(char[][]::new);
-
-        Set<Point> collectedRolls = new HashSet<>();
-
-        boolean changed;
-        do {
-            changed = false;
-
-            for (int r = 0; r < grid.length; r++) {
-                for (int c = 0; c < grid[r].length; c++) {
-                    if (grid[r][c] == '@') {
-                        long rollNeighborCount = 0;
-                        for (int dr = -1; dr <= 1; dr++) {
-                            for (int dc = -1; dc <= 1; dc++) {
-                                if (dr == 0 && dc == 0)
-                                    continue;
-
-                                int neighborR = r + dr;
-                                int neighborC = c + dc;
-
-                                if (neighborR >= 0 && neighborR < grid.length &&
-                                        neighborC >= 0 && neighborC < grid[r].length) {
-                                    if (grid[neighborR][neighborC] == '@') {
-                                        rollNeighborCount++;
-                                    }
-                                }
-                            }
-                        }
-
-                        if (rollNeighborCount < 4) {
-                            collectedRolls.add(new Point(r, c));
-                            grid[r][c] = '.';
-                            changed = true;
-                        }
+    /**
+     * Removes rolls until none is accessible, returning the number removed in each wave.
+     */
+    long[] removeAll() {
+        int[] queue = new int[rolls.length];
+        int tail = 0;
+
+        for (int cell = 0; cell < rolls.length; cell++) {
+            if (rolls[cell] && neighbors[cell] < BitGrid.MAX_NEIGHBORS) {
+                rolls[cell] = false;
+                queue[tail++] = cell;
+            }
+        }
+
+        var waves = LongStream.builder();
+        int[] scratch = new int[9];
+        int head = 0;
+        while (head < tail) {
+            int waveEnd = tail;
+            waves.add(waveEnd - head);
+
+            for (; head < waveEnd; head++) {
+                int[] around = neighborsOf(queue[head], scratch);
+                for (int i = 1; i <= around[0]; i++) {
+                    int cell = around[i];
+                    if (rolls[cell] && --neighbors[cell] < BitGrid.MAX_NEIGHBORS) {
+                        rolls[cell] = false;
+                        queue[tail++] = cell;
                     }
                 }
             }
+        }
+
+        return waves.build().toArray();
+    }
+
+    // Fills out[1..out[0]] with the cells around the given one.
+    private int[] neighborsOf(int cell, int[] out) {
+        int r = cell / width;
+        int c = cell % width;
+        out[0] = 0;
+
+        for (int dr = -1; dr <= 1; dr++) {
+            for (int dc = -1; dc <= 1; dc++) {
+                if (dr == 0 && dc == 0)
+                    continue;
+
+                int neighborR = r + dr;
+                int neighborC = c + dc;
+
+                if (neighborR >= 0 && neighborR < height &&
+                        neighborC >= 0 && neighborC < width) {
+                    out[++out[0]] = neighborR * width + neighborC;
+                }
+            }
+        }
+
+        return out;
+    }
+}
+
+/**
+ * Part 2 on square tiles that run their removal cascades in parallel.
+ * <p>
+ * The grid is one {@link BitGrid} read from a memory-mapped file, so the whole map costs a
+ * bit per cell on the heap. Tiles are 256 x 256 cells, four words wide, and each reads a
+ * one-cell halo from the bits of its neighbours. Tiles are coloured in a 2 x 2 pattern, so
+ * tiles of one colour never touch and can cascade on the shared grid at the same time while
+ * the owners of their halos wait. A tile that removes a roll on its edge marks the tiles
+ * across that edge for another pass, and the passes stop at the same fixpoint as
+ * {@link Part2}.
+ */
+static final class TiledRemoval {
+
+    private static final int TILE_SIZE = 256;
+    private static final int TILE_WORDS = TILE_SIZE / 64;
+
+    static long removeAll(Path input) throws IOException {
+        return removeAll(BitGrid.read(input));
+    }
+
+    static long removeAll(BitGrid grid) {
+        int tilesDown = Math.ceilDiv(grid.rows.length, TILE_SIZE);
+        int tilesAcross = Math.ceilDiv(grid.width, TILE_SIZE);
+        boolean[] pending = new boolean[tilesDown * tilesAcross];
+        Arrays.fill(pending, true);
+
+        long removedRolls = 0;
+        while (IntStream.range(0, pending.length).anyMatch(tile -> pending[tile])) {
+            for (int colour = 0; colour < 4; colour++) {
+                int parity = colour;
+                int[] batch = IntStream.range(0, pending.length)
+                        .filter(tile -> pending[tile]
+                                && (tile / tilesAcross % 2) * 2 + tile % tilesAcross % 2 == parity)
+                        .toArray();
+                for (int tile : batch) {
+                    pending[tile] = false;
+                }
+
+                long[] results = Arrays.stream(batch)
+                        .parallel()
+                        .mapToLong(tile -> cascade(grid, tile / tilesAcross, tile % tilesAcross))
+                        .toArray();
+
+                for (int k = 0; k < batch.length; k++) {
+                    removedRolls += results[k] >>> 4;
+                    markNeighbors(pending, batch[k], tilesDown, tilesAcross, (int) results[k] & 0xF);
+                }
+            }
+        }
+
+        return removedRolls;
+    }
+
+    // Edge flags returned in the low bits of cascade().
+    private static final int TOP = 1;
+    private static final int BOTTOM = 2;
+    private static final int LEFT = 4;
+    private static final int RIGHT = 8;
+
+    /**
+     * Removes every roll of one tile that becomes accessible, returning the number removed
+     * shifted left by four, or'ed with the edges that lost a roll.
+     * <p>
+     * Work is tracked per word: a word is rechecked only after a roll next to it was
+     * removed, so the only scratch is one dirty bit for each of the tile's 1024 words.
+     */
+    private static long cascade(BitGrid grid, int tileRow, int tileColumn) {
+        int top = tileRow * TILE_SIZE;
+        int rows = Math.min(TILE_SIZE, grid.rows.length - top);
+        int firstWord = tileColumn * TILE_WORDS;
+        int words = Math.min(TILE_WORDS, grid.rows[0].length - firstWord);
+
+        long[] dirty = new long[TILE_SIZE * TILE_WORDS / 64];
+        for (int k = 0; k < rows * TILE_WORDS; k++) {
+            if (k % TILE_WORDS < words)
+                dirty[k >>> 6] |= 1L << k;
+        }
+
+        long removed = 0;
+        int edges = 0;
+        for (int d = 0; d < dirty.length; ) {
+            if (dirty[d] == 0) {
+                d++;
+                continue;
+            }
+            int k = d << 6 | Long.numberOfTrailingZeros(dirty[d]);
+            dirty[d] &= dirty[d] - 1;
+
+            int i = k / TILE_WORDS;
+            int j = k % TILE_WORDS;
+            long accessible = grid.accessible(top + i, firstWord + j);
+            if (accessible == 0)
+                continue;
+
+            grid.rows[top + i][firstWord + j] &= ~accessible;
+            removed += Long.bitCount(accessible);
+            if (i == 0)
+                edges |= TOP;
+            if (i == rows - 1)
+                edges |= BOTTOM;
+            if (j == 0 && (accessible & 1) != 0)
+                edges |= LEFT;
+            if (j == words - 1 && accessible < 0)
+                edges |= RIGHT;
+
+            // Re-queue the words whose cells border the removed rolls.
+            int fromJ = (accessible & 1) != 0 ? j - 1 : j;
+            int toJ = accessible < 0 ? j + 1 : j;
+            for (int ni = Math.max(0, i - 1); ni <= Math.min(rows - 1, i + 1); ni++) {
+                for (int nj = Math.max(0, fromJ); nj <= Math.min(words - 1, toJ); nj++) {
+                    int n = ni * TILE_WORDS + nj;
+                    dirty[n >>> 6] |= 1L << n;
+                }
+            }
+            d = Math.min(d, (Math.max(0, i - 1) * TILE_WORDS) >>> 6);
+        }
 
-        } while (changed);
+        return removed << 4 | edges;
+    }
 
-        return String.valueOf(collectedRolls.size());
+    // Queues the tiles across the given edges for another pass.
+    private static void markNeighbors(boolean[] pending, int tile, int tilesDown, int tilesAcross, int edges) {
+        int tileRow = tile / tilesAcross;
+        int tileColumn = tile % tilesAcross;
+        for (int di = (edges & TOP) != 0 ? -1 : 0; di <= ((edges & BOTTOM) != 0 ? 1 : 0); di++) {
+            for (int dj = (edges & LEFT) != 0 ? -1 : 0; dj <= ((edges & RIGHT) != 0 ? 1 : 0); dj++) {
+                int r = tileRow + di;
+                int c = tileColumn + dj;
+                if ((di != 0 || dj != 0) && r >= 0 && r < tilesDown && c >= 0 && c < tilesAcross)
+                    pending[r * tilesAcross + c] = true;
+            }
+        }
     }
 }
 
@@ -8,8 +8,28 @@ import static java.lang.System.err;
 void main(String... args) {
     var input = args.length > 0 ? args[0] : "Day05.test";
 
+    // "external <budget MB> [merged file]" answers Part 2 without loading the ranges.
+    if (args.length > 2 && args[1].equals("external")) {
+        try {
+            long total = ExternalMerge.coveredSize(
+                    Path.of(input),
+                    Long.parseLong(args[2]) << 20,
+                    args.length > 3 ? Path.of(args[3]) : null);
+            out.println("Part 2: " + total);
+        } catch (IOException e) {
+            err.println("Unable to read input file '" + input + "': " + e.getMessage());
+        }
+        return;
+    }
+
     try (Stream<String> lineStream = Files.lines(Path.of(input))) {
         List<String> lines = lineStream.toList();
+
+        if (args.length > 1) {
+            runMode(lines, args);
+            return;
+        }
+
         out.println("""
                 Part 1: %s
                 Part 2: %s
@@ -21,6 +41,46 @@ void main(String... args) {
     }
 }
 
+// "batch" answers Part 1 with a sorted sweep, "bench <n>" times it against per-query lookups,
+// "online" feeds the input line by line through an IntervalSet.
+static void runMode(List<String> lines, String... args) {
+    if (args[1].equals("online")) {
+        var freshRanges = new IntervalSet();
+        boolean inQueries = false;
+        long sum = 0;
+        for (String line : lines) {
+            int dash = line.indexOf('-');
+            if (line.isBlank()) {
+                inQueries = true;
+            } else if (!inQueries) {
+                freshRanges.add(Long.parseLong(line, 0, dash, 10), Long.parseLong(line, dash + 1, line.length(), 10));
+            } else if (dash < 0) {
+                sum += freshRanges.contains(Long.parseLong(line)) ? 1 : 0;
+            } else {
+                sum += freshRanges.countInRange(Long.parseLong(line, 0, dash, 10), Long.parseLong(line, dash + 1, line.length(), 10));
+            }
+        }
+        out.println("""
+                Part 1: %s
+                Part 2: %s
+                """.formatted(sum, freshRanges.coveredSize()));
+        return;
+    }
+
+    var freshRanges = IntervalIndex.of(lines.stream()
+            .takeWhile(line -> !line.isBlank())
+            .toList());
+
+    switch (args[1]) {
+        case "batch" -> out.println("Part 1: " + BatchQueries.parse(lines.stream()
+                .dropWhile(line -> !line.isBlank())
+                .skip(1)
+                .toList()).evaluate(freshRanges));
+        case "bench" -> BatchQueries.benchmark(freshRanges, Long.parseLong(args[2]));
+        default -> throw new IllegalArgumentException("Invalid mode: " + args[1]);
+    }
+}
+
 sealed interface Part permits Part1, Part2 {
     String compute(List<String> lines);
 }
@@ -36,9 +96,82 @@ final static class Part1 implements Part {
                 .skip(1) // Skip the blank line itself
                 .toList();
 
-        // Parse fresh ranges
+        var freshRanges = IntervalIndex.of(freshIngredients);
+
+        long sum = 0;
+        for (String line : availableIngredients) {
+            String[] parts = line.split("-");
+            if (parts.length == 1) {
+                long num = Long.parseLong(parts[0]);
+                if (freshRanges.contains(num))
+                    sum++;
+            } else {
+                long start = Long.parseLong(parts[0]);
+                long end = Long.parseLong(parts[1]);
+                sum += freshRanges.countInRange(start, end);
+            }
+        }
+
+        return String.valueOf(sum);
+    }
+}
+
+final static class Part2 implements Part {
+    public String compute(List<String> lines) {
+        List<String> freshIngredients = lines.stream()
+                .takeWhile(line -> !line.isBlank())
+                .toList();
+
+        // Sum the sizes of merged ranges
+        return String.valueOf(IntervalIndex.of(freshIngredients).coveredSize());
+    }
+}
+
+/**
+ * Merged fresh ranges frozen into primitive arrays for O(log n) lookups.
+ * <p>
+ * The range starts are stored in Eytzinger (BFS) order, so a search walks down an implicit
+ * binary tree whose top levels share cache lines. {@code rank} maps a tree node back to
+ * the sorted position of its range, and {@code coveredBefore} holds the prefix sums of
+ * range sizes, which turns a range-count query into two point searches.
+ */
+static final class IntervalIndex {
+
+    private final long[] starts;
+    private final long[] ends;
+    private final long[] coveredBefore;
+    private final long[] tree;
+    private final int[] rank;
+
+    private IntervalIndex(long[] starts, long[] ends) {
+        int n = starts.length;
+        this.starts = starts;
+        this.ends = ends;
+        this.coveredBefore = new long[n + 1];
+        for (int i = 0; i < n; i++) {
+            coveredBefore[i + 1] = coveredBefore[i] + ends[i] - starts[i] + 1;
+        }
+
+        this.tree = new long[n + 1];
+        this.rank = new int[n + 1];
+        fill(1, 0);
+    }
+
+    // In-order traversal of the implicit tree assigns the sorted ranges to the nodes.
+    private int fill(int node, int next) {
+        if (node < tree.length) {
+            next = fill(2 * node, next);
+            tree[node] = starts[next];
+            rank[node] = next++;
+            next = fill(2 * node + 1, next);
+        }
+        return next;
+    }
+
+    static IntervalIndex of(List<String> rangeLines) {
+        // Parse ranges
         List<long[]> freshRanges = new ArrayList<>();
-        for (String line : freshIngredients) {
+        for (String line : rangeLines) {
             String[] parts = line.split("-");
             long start = Long.parseLong(parts[0]);
             long end = Long.parseLong(parts[1]);
@@ -56,77 +189,427 @@ final static class Part1 implements Part {
             }
         }
 
+        return new IntervalIndex(
+                mergedRanges.stream().mapToLong(r -> r[0]).toArray(),
+                mergedRanges.stream().mapToLong(r -> r[1]).toArray());
+    }
+
+    boolean contains(long num) {
+        int i = lastStartAtMost(num);
+        return i >= 0 && num <= ends[i];
+    }
+
+    long countInRange(long start, long end) {
+        return start > end ? 0 : coveredUpTo(end) - coveredUpTo(start - 1);
+    }
+
+    long coveredSize() {
+        return coveredBefore[starts.length];
+    }
+
+    /**
+     * Counts the values of {@code sortedPoints[from, to)} inside a range, sweeping forward
+     * through the ranges instead of searching for every point.
+     */
+    long countContained(long[] sortedPoints, int from, int to) {
+        if (from >= to)
+            return 0;
+
+        long count = 0;
+        int i = Math.max(lastStartAtMost(sortedPoints[from]), 0);
+        for (int p = from; p < to; p++) {
+            long num = sortedPoints[p];
+            while (i + 1 < starts.length && starts[i + 1] <= num) {
+                i++;
+            }
+            if (i < starts.length && starts[i] <= num && num <= ends[i])
+                count++;
+        }
+        return count;
+    }
+
+    // Sum of coveredUpTo() over sortedKeys[from, to), sweeping like countContained().
+    long sumCoveredUpTo(long[] sortedKeys, int from, int to) {
+        if (from >= to)
+            return 0;
+
         long sum = 0;
-        for (String line : availableIngredients) {
-            String[] parts = line.split("-");
-            if (parts.length == 1) {
-                long num = Long.parseLong(parts[0]);
-                if (isInRanges(num, mergedRanges))
-                    sum++;
+        int i = lastStartAtMost(sortedKeys[from]);
+        for (int k = from; k < to; k++) {
+            long num = sortedKeys[k];
+            while (i + 1 < starts.length && starts[i + 1] <= num) {
+                i++;
+            }
+            if (i >= 0)
+                sum += coveredBefore[i] + Math.min(num, ends[i]) - starts[i] + 1;
+        }
+        return sum;
+    }
+
+    // The smallest and largest fresh IDs, or null without ranges.
+    long[] bounds() {
+        return starts.length == 0 ? null : new long[] { starts[0], ends[starts.length - 1] };
+    }
+
+    // Number of covered values <= num.
+    private long coveredUpTo(long num) {
+        int i = lastStartAtMost(num);
+        return i < 0
+                ? 0
+                : coveredBefore[i] + Math.min(num, ends[i]) - starts[i] + 1;
+    }
+
+    // Sorted index of the last range starting at or before num, or -1.
+    private int lastStartAtMost(long num) {
+        int node = 1;
+        while (node < tree.length) {
+            node = 2 * node + (tree[node] <= num ? 1 : 0);
+        }
+        // Undo the trailing right turns to land on the first start greater than num.
+        node >>>= Integer.numberOfTrailingZeros(~node) + 1;
+        return (node == 0 ? starts.length : rank[node]) - 1;
+    }
+}
+
+/**
+ * Part 1 queries evaluated as one batch.
+ * <p>
+ * Point queries and the two ends of every range query are parsed into primitive arrays
+ * and sorted with {@link Arrays#parallelSort(long[])}. The sorted keys are cut into one
+ * slice per core, and each slice is merge-joined against the merged ranges in a single
+ * forward sweep. A range query counts {@code covered(end) - covered(start - 1)}, so its
+ * two ends can be sorted and swept independently.
+ */
+static final class BatchQueries {
+
+    final long[] points;
+    final long[] rangeEnds;
+    final long[] rangeStartsBefore;
+
+    private BatchQueries(long[] points, long[] rangeEnds, long[] rangeStartsBefore) {
+        this.points = points;
+        this.rangeEnds = rangeEnds;
+        this.rangeStartsBefore = rangeStartsBefore;
+    }
+
+    static BatchQueries parse(List<String> queryLines) {
+        int rangeCount = (int) queryLines.stream().filter(line -> line.indexOf('-') >= 0).count();
+        long[] points = new long[queryLines.size() - rangeCount];
+        long[] rangeEnds = new long[rangeCount];
+        long[] rangeStartsBefore = new long[rangeCount];
+
+        int p = 0;
+        int r = 0;
+        for (String line : queryLines) {
+            int dash = line.indexOf('-');
+            if (dash < 0) {
+                points[p++] = Long.parseLong(line);
             } else {
-                long start = Long.parseLong(parts[0]);
-                long end = Long.parseLong(parts[1]);
-                sum += countInRange(start, end, mergedRanges);
+                long start = Long.parseLong(line, 0, dash, 10);
+                long end = Long.parseLong(line, dash + 1, line.length(), 10);
+                // An empty range must count zero: covered(end) - covered(end).
+                rangeStartsBefore[r] = Math.min(start, end + 1) - 1;
+                rangeEnds[r++] = end;
             }
         }
 
-        return String.valueOf(sum);
+        return new BatchQueries(points, rangeEnds, rangeStartsBefore);
+    }
+
+    long evaluate(IntervalIndex freshRanges) {
+        Arrays.parallelSort(points);
+        Arrays.parallelSort(rangeEnds);
+        Arrays.parallelSort(rangeStartsBefore);
+
+        return sweep(points, freshRanges::countContained)
+                + sweep(rangeEnds, freshRanges::sumCoveredUpTo)
+                - sweep(rangeStartsBefore, freshRanges::sumCoveredUpTo);
+    }
+
+    interface SliceSweep {
+        long apply(long[] sortedKeys, int from, int to);
     }
 
-    private static boolean isInRanges(long num, List<long[]> ranges) {
-        for (long[] r : ranges) {
-            if (num >= r[0] && num <= r[1])
-                return true;
+    // Splits the sorted keys into one key range per core and sums the sweeps.
+    private static long sweep(long[] sortedKeys, SliceSweep sliceSweep) {
+        int slices = Math.min(Runtime.getRuntime().availableProcessors(), Math.max(sortedKeys.length, 1));
+        return IntStream.range(0, slices)
+                .parallel()
+                .mapToLong(i -> sliceSweep.apply(sortedKeys,
+                        (int) ((long) sortedKeys.length * i / slices),
+                        (int) ((long) sortedKeys.length * (i + 1) / slices)))
+                .sum();
+    }
+
+    /**
+     * Times per-query lookups against the batch sweep on {@code count} random point queries
+     * spread over the fresh ranges, which must fit in one array.
+     */
+    static void benchmark(IntervalIndex freshRanges, long count) {
+        long[] bounds = freshRanges.bounds();
+        if (bounds == null) {
+            err.println("No fresh ranges to benchmark against");
+            return;
+        }
+
+        long[] points = new SplittableRandom(5)
+                .longs(Math.toIntExact(count), bounds[0], bounds[1] + 1)
+                .toArray();
+
+        long startNanos = System.nanoTime();
+        long perQuery = Arrays.stream(points).parallel().filter(freshRanges::contains).count();
+        long perQueryNanos = System.nanoTime() - startNanos;
+
+        startNanos = System.nanoTime();
+        long batch = new BatchQueries(points, new long[0], new long[0]).evaluate(freshRanges);
+        long batchNanos = System.nanoTime() - startNanos;
+
+        out.println("""
+                Queries:   %d
+                Per-query: %d fresh in %d ms
+                Batch:     %d fresh in %d ms
+                """.formatted(
+                count,
+                perQuery, perQueryNanos / 1_000_000,
+                batch, batchNanos / 1_000_000));
+    }
+}
+
+/**
+ * Mutable set of disjoint fresh ranges for inserts and lookups that arrive interleaved.
+ * <p>
+ * Ranges are kept in a {@link TreeMap} from start to end and coalesced on insert with the
+ * same overlap rule as the merge in {@link Part1} and {@link Part2}. Inserts and point
+ * lookups take O(log n) (amortised, as every range is absorbed at most once), range counts
+ * O(log n + k) for the k ranges they overlap, and the covered size is kept up to date.
+ */
+static final class IntervalSet {
+
+    private final TreeMap<Long, Long> ranges = new TreeMap<>();
+    private long coveredSize;
+
+    void add(long start, long end) {
+        if (start > end)
+            return;
+
+        // A range starting before `start` absorbs the new one if it reaches it.
+        var before = ranges.floorEntry(start);
+        if (before != null && before.getValue() >= start) {
+            start = before.getKey();
+            end = Math.max(end, before.getValue());
+            remove(before.getKey(), before.getValue());
+        }
+
+        // Every range starting inside the new one is absorbed.
+        for (var next = ranges.ceilingEntry(start); next != null && next.getKey() <= end;
+                next = ranges.ceilingEntry(start)) {
+            end = Math.max(end, next.getValue());
+            remove(next.getKey(), next.getValue());
         }
-        return false;
+
+        ranges.put(start, end);
+        coveredSize += end - start + 1;
+    }
+
+    boolean contains(long num) {
+        var range = ranges.floorEntry(num);
+        return range != null && num <= range.getValue();
     }
 
-    private static long countInRange(long start, long end, List<long[]> ranges) {
+    long countInRange(long start, long end) {
+        if (start > end)
+            return 0;
+
+        var first = ranges.floorKey(start);
         long count = 0;
-        for (long[] r : ranges) {
-            long overlapStart = Math.max(start, r[0]);
-            long overlapEnd = Math.min(end, r[1]);
+        for (var range : ranges.subMap(first != null ? first : start, true, end, true).entrySet()) {
+            long overlapStart = Math.max(start, range.getKey());
+            long overlapEnd = Math.min(end, range.getValue());
             if (overlapStart <= overlapEnd) {
                 count += overlapEnd - overlapStart + 1;
             }
         }
         return count;
     }
+
+    long coveredSize() {
+        return coveredSize;
+    }
+
+    private void remove(long start, long end) {
+        ranges.remove(start);
+        coveredSize -= end - start + 1;
+    }
 }
 
-final static class Part2 implements Part {
-    public String compute(List<String> lines) {
-        List<String> freshIngredients = lines.stream()
-                .takeWhile(line -> !line.isBlank())
-                .toList();
+/**
+ * Out-of-core Part 2 for range lists larger than the heap.
+ * <p>
+ * Ranges are parsed into two primitive buffers, range starts and range ends, that fill
+ * half of the memory budget. Each full buffer is sorted and written to disk as a run of
+ * fixed-width longs. The union of the ranges only depends on the sorted starts and the
+ * sorted ends, so the two sets of runs are k-way merged independently and swept together:
+ * a start opens a merged range when no range is open and the last end closes it. As in the
+ * in-memory merge, ranges that touch without overlapping stay separate.
+ */
+static final class ExternalMerge {
 
-        // Parse ranges
-        List<long[]> freshRanges = new ArrayList<>();
-        for (String line : freshIngredients) {
-            String[] parts = line.split("-");
-            long start = Long.parseLong(parts[0]);
-            long end = Long.parseLong(parts[1]);
-            freshRanges.add(new long[] { start, end });
+    static long coveredSize(Path input, long budgetBytes, Path mergedOutput) throws IOException {
+        Path runDirectory = Files.createTempDirectory("day05-runs");
+        try {
+            List<Path> startRuns = new ArrayList<>();
+            List<Path> endRuns = new ArrayList<>();
+            writeRuns(input, budgetBytes, runDirectory, startRuns, endRuns);
+
+            // The other half of the budget goes to the read buffers of the merge.
+            int bufferBytes = (int) Math.clamp(budgetBytes / 2 / Math.max(1, 2 * startRuns.size()), 8, 1 << 20);
+            try (var starts = new MergedRuns(startRuns, bufferBytes);
+                 var ends = new MergedRuns(endRuns, bufferBytes);
+                 var merged = mergedOutput != null ? Files.newBufferedWriter(mergedOutput) : null) {
+                return sweep(starts, ends, merged);
+            }
+        } finally {
+            try (Stream<Path> runs = Files.list(runDirectory)) {
+                for (Path run : runs.toList()) {
+                    Files.delete(run);
+                }
+            }
+            Files.delete(runDirectory);
         }
+    }
 
-        // Sort and merge overlapping ranges
-        freshRanges.sort(Comparator.comparingLong(a -> a[0]));
-        List<long[]> mergedRanges = new ArrayList<>();
-        for (long[] range : freshRanges) {
-            if (mergedRanges.isEmpty() || mergedRanges.getLast()[1] < range[0]) {
-                mergedRanges.add(range);
-            } else {
-                mergedRanges.getLast()[1] = Math.max(mergedRanges.getLast()[1], range[1]);
+    private static void writeRuns(Path input, long budgetBytes, Path runDirectory,
+            List<Path> startRuns, List<Path> endRuns) throws IOException {
+        int capacity = (int) Math.clamp(budgetBytes / 2 / (2 * Long.BYTES), 1, Integer.MAX_VALUE - 8);
+        long[] starts = new long[capacity];
+        long[] ends = new long[capacity];
+        int size = 0;
+
+        try (var reader = Files.newBufferedReader(input)) {
+            for (String line = reader.readLine(); line != null && !line.isBlank(); line = reader.readLine()) {
+                int dash = line.indexOf('-');
+                starts[size] = Long.parseLong(line, 0, dash, 10);
+                ends[size] = Long.parseLong(line, dash + 1, line.length(), 10);
+                if (++size == capacity) {
+                    startRuns.add(writeRun(runDirectory, starts, size));
+                    endRuns.add(writeRun(runDirectory, ends, size));
+                    size = 0;
+                }
             }
         }
 
-        // Sum the sizes of merged ranges
+        if (size > 0) {
+            startRuns.add(writeRun(runDirectory, starts, size));
+            endRuns.add(writeRun(runDirectory, ends, size));
+        }
+    }
+
+    private static Path writeRun(Path runDirectory, long[] values, int size) throws IOException {
+        Arrays.parallelSort(values, 0, size);
+        Path run = Files.createTempFile(runDirectory, "run", ".bin");
+        try (var output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run)))) {
+            for (int i = 0; i < size; i++) {
+                output.writeLong(values[i]);
+            }
+        }
+        return run;
+    }
+
+    private static long sweep(MergedRuns starts, MergedRuns ends, Writer merged) throws IOException {
         long total = 0;
-        for (long[] range : mergedRanges) {
-            total += range[1] - range[0] + 1;
+        long open = 0;
+        long mergedStart = 0;
+
+        while (ends.hasNext()) {
+            // At equal positions the start goes first: the ranges overlap on that value.
+            if (starts.hasNext() && starts.peek() <= ends.peek()) {
+                long start = starts.next();
+                if (open++ == 0)
+                    mergedStart = start;
+            } else {
+                long end = ends.next();
+                if (--open == 0) {
+                    total += end - mergedStart + 1;
+                    if (merged != null)
+                        merged.write(mergedStart + "-" + end + "\n");
+                }
+            }
+        }
+
+        return total;
+    }
+
+    // K-way merge of sorted run files.
+    static final class MergedRuns implements Closeable {
+
+        private final PriorityQueue<RunReader> heads = new PriorityQueue<>(Comparator.comparingLong(RunReader::head));
+
+        MergedRuns(List<Path> runs, int bufferBytes) throws IOException {
+            for (Path run : runs) {
+                var reader = new RunReader(run, bufferBytes);
+                if (reader.advance()) {
+                    heads.add(reader);
+                } else {
+                    reader.close();
+                }
+            }
+        }
+
+        boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        long peek() {
+            return heads.element().head();
         }
 
-        return String.valueOf(total);
+        long next() throws IOException {
+            var reader = heads.remove();
+            long value = reader.head();
+            if (reader.advance()) {
+                heads.add(reader);
+            } else {
+                reader.close();
+            }
+            return value;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (var reader : heads) {
+                reader.close();
+            }
+        }
+    }
+
+    static final class RunReader implements Closeable {
+
+        private final DataInputStream input;
+        private long remaining;
+        private long head;
+
+        RunReader(Path run, int bufferBytes) throws IOException {
+            this.input = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), bufferBytes));
+            this.remaining = Files.size(run) / Long.BYTES;
+        }
+
+        long head() {
+            return head;
+        }
+
+        boolean advance() throws IOException {
+            if (remaining == 0)
+                return false;
+
+            remaining--;
+            head = input.readLong();
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            input.close();
+        }
     }
 }
 
@@ -7,6 +7,22 @@ import static java.lang.System.err;
 void main(String... args) {
     var input = args.length > 0 ? args[0] : "Day06.test";
 
+    // "mapped" reads column slices from the memory-mapped file instead of loading lines.
+    if (args.length > 1 && args[1].equals("mapped")) {
+        try (var channel = FileChannel.open(Path.of(input), StandardOpenOption.READ);
+             var arena = Arena.ofShared()) {
+            var sheet = Worksheet.map(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena));
+            BigInteger[] totals = Worksheet.evaluate(sheet);
+            println("""
+                    Part 1: %s
+                    Part 2: %s
+                    """.formatted(totals[0], totals[1]));
+        } catch (IOException e) {
+            err.println("Unable to read input file '" + input + "': " + e.getMessage());
+        }
+        return;
+    }
+
     try (Stream<String> lineStream = Files.lines(Path.of(input))) {
         List<String> lines = lineStream.toList();
         println("""
@@ -20,82 +36,290 @@ void main(String... args) {
     }
 }
 
-static long vertical(List<String> padded, int k) {
-    StringBuilder sb = new StringBuilder();
-    for (int row = 0; row < padded.size() - 1; row++) {
-        char c = padded.get(row).charAt(k);
-        if (Character.isDigit(c)) sb.append(c);
-    }
-    return sb.length() > 0 ? Long.parseLong(sb.toString()) : 0L;
-}
-
 sealed interface Part permits Part1, Part2 {
     String compute(List<String> lines);
 }
 
 static final class Part1 implements Part {
     public String compute(List<String> lines) {
-        List<String> numberLines = lines.subList(0, lines.size() - 1);
-        String[] operators = lines.getLast().strip().split("\\s+");
-
-        return String.valueOf(IntStream.range(0, operators.length)
-                .mapToLong(i -> {
-                    char op = operators[i].charAt(0);
-                    List<Long> nums = numberLines.stream()
-                            .map(line -> line.strip().split("\\s+")[i])
-                            .map(Long::parseLong)
-                            .toList();
-                    return nums.stream()
-                            .reduce((a, b) -> switch (op) {
-                                case '+' -> a + b;
-                                case '*' -> a * b;
-                                default -> throw new IllegalStateException("Unexpected operator: " + op);
-                            })
-                            .orElse(0L);
-                })
-                .sum());
+        return String.valueOf(Worksheet.evaluate(Worksheet.of(lines))[0]);
     }
 }
 
 static final class Part2 implements Part {
     public String compute(List<String> lines) {
-        int maxLen = lines.stream().mapToInt(String::length).max().orElse(0);
-        List<String> padded = lines.stream()
-                .map(line -> String.format("%-" + maxLen + "s", line))
-                .toList();
-        String operatorLine = lines.getLast();
-        List<Integer> opPositions = new ArrayList<>();
-        for (int j = 0; j < operatorLine.length(); j++) {
-            if (operatorLine.charAt(j) != ' ') {
-                opPositions.add(j);
+        return String.valueOf(Worksheet.evaluate(Worksheet.of(lines))[1]);
+    }
+}
+
+/**
+ * Single pass over the worksheet bytes that evaluates both parts.
+ * <p>
+ * Problem boundaries come from the operator row: every column belongs to the problem of the
+ * nearest operator on its left. While each number row is scanned, its digits extend the
+ * row's horizontal number (Part 1) and the vertical number of their column (Part 2), both
+ * held in primitive arrays, so no padding or intermediate Strings are needed.
+ * <p>
+ * The vertical numbers are accumulated by {@link #COLUMN_KERNEL}. When the program runs
+ * with {@code --add-modules jdk.incubator.vector}, that is the Vector API kernel in
+ * {@code Day06Vector.java}, which updates a full vector of columns per instruction.
+ * Otherwise it is the scalar {@link #accumulateColumns}.
+ * <p>
+ * Problems are independent, so the sheet is cut into column blocks that start at operator
+ * positions and the blocks are evaluated in parallel. A block only needs its own column
+ * slice of every row, which a {@link Source} can read from memory or from a mapped file.
+ * Results are kept in {@code long}s and only a problem or total that overflows switches to
+ * {@link BigInteger}.
+ */
+static final class Worksheet {
+
+    static final BiConsumer<byte[], long[]> COLUMN_KERNEL = columnKernel();
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<byte[], long[]> columnKernel() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                // Loaded by name: the file only compiles when the module is present.
+                return (BiConsumer<byte[], long[]>) Class.forName("Day06Vector")
+                        .getDeclaredConstructor()
+                        .newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                err.println("Vector kernel unavailable, using scalar columns: " + e);
+            }
+        }
+        return Worksheet::accumulateColumns;
+    }
+
+    // vertical[j] = vertical[j] * 10 + digit for every digit in the row.
+    static void accumulateColumns(byte[] row, long[] vertical) {
+        for (int j = 0; j < row.length; j++) {
+            int digit = row[j] - '0';
+            if (digit >= 0 && digit <= 9)
+                vertical[j] = vertical[j] * 10 + digit;
+        }
+    }
+
+    // Target number of column blocks per core.
+    private static final int BLOCKS_PER_CORE = 4;
+
+    // A worksheet that hands out column slices of its rows; the last row holds the operators.
+    interface Source {
+        int rows();
+
+        int width();
+
+        // Bytes [from, to) of a row, cut short where the row ends.
+        byte[] slice(int row, int from, int to);
+    }
+
+    static Source of(List<String> lines) {
+        byte[][] rows = lines.stream()
+                .map(line -> line.getBytes(StandardCharsets.ISO_8859_1))
+                .toArray(byte[][]::new);
+        int width = Arrays.stream(rows).mapToInt(row -> row.length).max().orElse(0);
+
+        return new Source() {
+            public int rows() {
+                return rows.length;
+            }
+
+            public int width() {
+                return width;
+            }
+
+            public byte[] slice(int row, int from, int to) {
+                return Arrays.copyOfRange(rows[row], Math.min(from, rows[row].length), Math.min(to, rows[row].length));
             }
+        };
+    }
+
+    // Only the row offsets are read up front; slices are copied out of the mapping on demand.
+    static Source map(MemorySegment segment) {
+        var rowStarts = LongStream.builder();
+        long size = segment.byteSize();
+        rowStarts.add(0);
+        for (long offset = 0; offset < size; offset++) {
+            if (segment.get(ValueLayout.JAVA_BYTE, offset) == '\n' && offset + 1 < size)
+                rowStarts.add(offset + 1);
+        }
+        long[] starts = rowStarts.build().toArray();
+
+        int[] lengths = new int[starts.length];
+        for (int row = 0; row < starts.length; row++) {
+            long end = row + 1 < starts.length ? starts[row + 1] - 1 : size;
+            while (end > starts[row] && isLineBreak(segment.get(ValueLayout.JAVA_BYTE, end - 1))) {
+                end--;
+            }
+            lengths[row] = Math.toIntExact(end - starts[row]);
         }
-        String[] operators = opPositions.stream().map(j -> "" + operatorLine.charAt(j)).toArray(String[]::new);
-        return String.valueOf(IntStream.range(0, operators.length)
-                .map(i -> operators.length - 1 - i)
-                .mapToLong(i -> {
-                    char op = operators[i].charAt(0);
-                    int start = opPositions.get(i);
-                    int end = i < opPositions.size() - 1 ? opPositions.get(i + 1) - 1 : maxLen - 1;
-                    List<Long> nums = new ArrayList<>();
-                    for (int k = start; k <= end; k++) {
-                        long v = vertical(padded, k);
-                        if (v != 0) nums.add(v);
+        int width = Arrays.stream(lengths).max().orElse(0);
+
+        return new Source() {
+            public int rows() {
+                return starts.length;
+            }
+
+            public int width() {
+                return width;
+            }
+
+            public byte[] slice(int row, int from, int to) {
+                int start = Math.min(from, lengths[row]);
+                int end = Math.min(to, lengths[row]);
+                return segment.asSlice(starts[row] + start, end - start).toArray(ValueLayout.JAVA_BYTE);
+            }
+        };
+    }
+
+    private static boolean isLineBreak(byte b) {
+        return b == '\n' || b == '\r';
+    }
+
+    // { Part 1, Part 2 }
+    static BigInteger[] evaluate(Source sheet) {
+        int operatorRow = sheet.rows() - 1;
+        byte[] operators = sheet.slice(operatorRow, 0, sheet.width());
+        int[] operatorPositions = IntStream.range(0, operators.length)
+                .filter(j -> operators[j] != ' ')
+                .toArray();
+        if (operatorPositions.length == 0)
+            return new BigInteger[] { BigInteger.ZERO, BigInteger.ZERO };
+
+        // Block boundaries, each snapped forward to the next operator.
+        int blocks = Runtime.getRuntime().availableProcessors() * BLOCKS_PER_CORE;
+        int[] bounds = IntStream.concat(
+                        IntStream.range(0, blocks)
+                                .map(i -> (int) ((long) operatorPositions.length * i / blocks))
+                                .map(i -> operatorPositions[i]),
+                        IntStream.of(sheet.width()))
+                .distinct()
+                .toArray();
+
+        return IntStream.range(0, bounds.length - 1)
+                .parallel()
+                .mapToObj(i -> evaluate(IntStream.rangeClosed(0, operatorRow)
+                        .mapToObj(row -> sheet.slice(row, bounds[i], bounds[i + 1]))
+                        .toArray(byte[][]::new)))
+                .reduce((a, b) -> new BigInteger[] { a[0].add(b[0]), a[1].add(b[1]) })
+                .orElseThrow();
+    }
+
+    // { Part 1, Part 2 } of the problems in one block of rows, the last holding the operators.
+    static BigInteger[] evaluate(byte[][] rows) {
+        byte[] operatorRow = rows[rows.length - 1];
+        int width = Arrays.stream(rows).mapToInt(row -> row.length).max().orElse(0);
+
+        int[] problemOf = new int[width];
+        byte[] operators = new byte[width];
+        int problems = 0;
+        for (int j = 0; j < width; j++) {
+            if (j < operatorRow.length && operatorRow[j] != ' ')
+                operators[problems++] = operatorRow[j];
+            problemOf[j] = Math.max(problems - 1, 0);
+        }
+
+        var horizontal = new Folds(operators, problems);
+        long[] vertical = new long[width];
+
+        for (int row = 0; row < rows.length - 1; row++) {
+            byte[] bytes = rows[row];
+            COLUMN_KERNEL.accept(bytes, vertical);
+
+            long number = 0;
+            int problem = -1;
+
+            for (int j = 0; j < bytes.length; j++) {
+                int digit = bytes[j] - '0';
+                if (digit >= 0 && digit <= 9) {
+                    if (problem < 0) {
+                        problem = problemOf[j];
+                        number = 0;
                     }
-                    Collections.reverse(nums);
-                    return nums.stream()
-                            .reduce((a, b) -> switch (op) {
-                                case '+' -> a + b;
-                                case '*' -> a * b;
-                                default -> throw new IllegalStateException("Unexpected operator: " + op);
-                            })
-                            .orElse(0L);
-                })
-                .sum());
+                    number = number * 10 + digit;
+                } else if (problem >= 0) {
+                    horizontal.add(problem, number);
+                    problem = -1;
+                }
+            }
+            if (problem >= 0)
+                horizontal.add(problem, number);
+        }
+
+        var cephalopod = new Folds(operators, problems);
+        for (int j = 0; j < width; j++) {
+            // Blank columns separate problems.
+            if (vertical[j] != 0)
+                cephalopod.add(problemOf[j], vertical[j]);
+        }
+
+        return new BigInteger[] { horizontal.sum(), cephalopod.sum() };
     }
-}
 
+    // One running result per problem, folded with the problem's operator.
+    static final class Folds {
+
+        private final byte[] operators;
+        private final long[] results;
+        private final boolean[] seen;
+        // Exact results, null until the problem's result no longer fits in a long.
+        private final BigInteger[] exact;
+
+        Folds(byte[] operators, int problems) {
+            this.operators = operators;
+            this.results = new long[problems];
+            this.seen = new boolean[problems];
+            this.exact = new BigInteger[problems];
+        }
+
+        void add(int problem, long number) {
+            if (!seen[problem]) {
+                seen[problem] = true;
+                results[problem] = number;
+                return;
+            }
+
+            byte op = operators[problem];
+            if (exact[problem] != null) {
+                exact[problem] = apply(op, exact[problem], BigInteger.valueOf(number));
+                return;
+            }
 
+            try {
+                results[problem] = switch (op) {
+                    case '+' -> Math.addExact(results[problem], number);
+                    case '*' -> Math.multiplyExact(results[problem], number);
+                    default -> throw new IllegalStateException("Unexpected operator: " + (char) op);
+                };
+            } catch (ArithmeticException overflow) {
+                exact[problem] = apply(op, BigInteger.valueOf(results[problem]), BigInteger.valueOf(number));
+            }
+        }
+
+        private static BigInteger apply(byte op, BigInteger a, BigInteger b) {
+            return op == '+' ? a.add(b) : a.multiply(b);
+        }
+
+        BigInteger sum() {
+            var total = BigInteger.ZERO;
+            long sum = 0;
+            for (int problem = 0; problem < results.length; problem++) {
+                if (exact[problem] != null) {
+                    total = total.add(exact[problem]);
+                    continue;
+                }
+
+                try {
+                    sum = Math.addExact(sum, results[problem]);
+                } catch (ArithmeticException overflow) {
+                    total = total.add(BigInteger.valueOf(sum));
+                    sum = results[problem];
+                }
+            }
+
+            return total.add(BigInteger.valueOf(sum));
+        }
+    }
+}
 
 static String solve(int part, List<String> lines) {
     return switch (part) {
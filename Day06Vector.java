@@ -0,0 +1,51 @@
+import java.util.function.BiConsumer;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API kernel for the vertical numbers of Day 06.
+ * <p>
+ * Loads a full byte vector of columns from a row, zeroes the non-digits and widens the
+ * lanes to longs, then computes {@code acc * 10 + digit} for digit lanes and leaves the
+ * others untouched. Day06 loads this class by name only when {@code jdk.incubator.vector}
+ * is present; run it with {@code java --add-modules jdk.incubator.vector Day06.java}.
+ */
+public final class Day06Vector implements BiConsumer<byte[], long[]> {
+
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    private static final int PARTS = BYTES.length() / LONGS.length();
+
+    @Override
+    public void accept(byte[] row, long[] vertical) {
+        int j = 0;
+        for (int bound = BYTES.loopBound(row.length); j < bound; j += BYTES.length()) {
+            var bytes = ByteVector.fromArray(BYTES, row, j);
+            VectorMask<Byte> isDigit = bytes.compare(VectorOperators.GE, (byte) '0')
+                    .and(bytes.compare(VectorOperators.LE, (byte) '9'));
+
+            var digits = bytes.sub((byte) '0').blend((byte) 0, isDigit.not());
+            var scales = ByteVector.broadcast(BYTES, (byte) 1).blend((byte) 10, isDigit);
+
+            for (int part = 0; part < PARTS; part++) {
+                int offset = j + part * LONGS.length();
+                var digit = (LongVector) digits.convertShape(VectorOperators.B2L, LONGS, part);
+                var scale = (LongVector) scales.convertShape(VectorOperators.B2L, LONGS, part);
+                LongVector.fromArray(LONGS, vertical, offset)
+                        .mul(scale)
+                        .add(digit)
+                        .intoArray(vertical, offset);
+            }
+        }
+
+        for (; j < row.length; j++) {
+            int digit = row[j] - '0';
+            if (digit >= 0 && digit <= 9)
+                vertical[j] = vertical[j] * 10 + digit;
+        }
+    }
+}
@@ -12,6 +12,20 @@ sealed interface Part permits Part1, Part2 {
 void main(String... args) {
     var input = args.length > 0 ? args[0] : "Day07.test";
 
+    // "stream" simulates row by row straight from the file, keeping only the beam state.
+    if (args.length > 1 && args[1].equals("stream")) {
+        try {
+            var manifold = Manifold.stream(Path.of(input));
+            println("""
+                    Part 1: %s
+                    Part 2: %s
+                    """.formatted(manifold.splits(), manifold.timelines()));
+        } catch (IOException e) {
+            err.println("Unable to read input file '" + input + "': " + e.getMessage());
+        }
+        return;
+    }
+
     try (Stream<String> lineStream = Files.lines(Path.of(input))) {
         List<String> lines = lineStream.toList();
         println("""
@@ -27,40 +41,192 @@ void main(String... args) {
 
 static final class Part1 implements Part {
     public String compute(List<String> lines) {
+        return String.valueOf(Manifold.simulate(lines).splits());
+    }
+}
+
+static final class Part2 implements Part {
+    public String compute(List<String> lines) {
+        return String.valueOf(Manifold.simulate(lines).timelines());
+    }
+}
+
+/**
+ * Row-by-row beam simulation that answers both parts.
+ * <p>
+ * The active beams are kept as a {@link BitSet} front and every column holds the number of
+ * timelines whose beam is there. A splitter {@code ^} sends its count to {@code pos - 1} and
+ * {@code pos + 1} and counts as one split however many timelines reach it, so one
+ * O(rows x width) pass gives Part 1's split count and Part 2's timeline total.
+ * <p>
+ * Only the current row is needed, so memory is O(width) whatever the height. A column
+ * receives from at most three others, so once a count passes a third of
+ * {@code Long.MAX_VALUE} the counts move to {@link BigInteger} before the next row.
+ */
+static final class Manifold {
 
-        int rejectsCount = 0;
-
-        Set<Integer> currentPositions = new HashSet<>();
-        currentPositions.add(lines.get(0).indexOf('S'));
-
-        // Iterate over the rows
-        Set<Integer> nextPositions = new HashSet<>();
-        for (int col = 1; col < lines.size(); col++) {
-            nextPositions.clear();
-
-            // Process each position in the current row
-            for (Integer pos : currentPositions) {
-                char charAtPos = lines.get(col).charAt(pos);
-                switch (charAtPos) {
-                    case '.' -> nextPositions.add(pos);
-                    case '^' -> {
-                        rejectsCount++;
-                        nextPositions.add(pos - 1);
-                        nextPositions.add(pos + 1);
-                    }
+    private BitSet front = new BitSet();
+    private BitSet nextFront = new BitSet();
+    private long[] timelines;
+    private long[] nextTimelines;
+    private long maxCount;
+    // Exact counts, used instead of the long arrays once they could overflow.
+    private BigInteger[] exactTimelines;
+    private BigInteger[] nextExactTimelines;
+    private long splits;
+
+    Manifold(int width, int start) {
+        this.timelines = new long[width];
+        this.nextTimelines = new long[width];
+        front.set(start);
+        timelines[start] = 1;
+        maxCount = 1;
+    }
+
+    static Manifold simulate(List<String> lines) {
+        String first = lines.get(0);
+        var manifold = new Manifold(first.length(), first.indexOf('S'));
+        for (int row = 1; row < lines.size(); row++) {
+            byte[] bytes = lines.get(row).getBytes(StandardCharsets.ISO_8859_1);
+            manifold.advance(bytes, 0, bytes.length);
+        }
+        return manifold;
+    }
+
+    // Reads the diagram in blocks into a reused buffer and splits the rows inside it.
+    static Manifold stream(Path input) throws IOException {
+        try (var in = Files.newInputStream(input)) {
+            byte[] buffer = new byte[1 << 16];
+            int filled = 0;
+            int lineStart = 0;
+            boolean endOfFile = false;
+            Manifold manifold = null;
+
+            while (true) {
+                int newline = lineStart;
+                while (newline < filled && buffer[newline] != '\n') {
+                    newline++;
+                }
+
+                if (newline < filled) {
+                    manifold = nextRow(manifold, buffer, lineStart, newline);
+                    lineStart = newline + 1;
+                } else if (endOfFile) {
+                    if (lineStart < filled)
+                        manifold = nextRow(manifold, buffer, lineStart, filled);
+                    break;
+                } else {
+                    // Keep the partial row at the front, growing only for rows longer than the buffer.
+                    filled -= lineStart;
+                    System.arraycopy(buffer, lineStart, buffer, 0, filled);
+                    lineStart = 0;
+                    if (filled == buffer.length)
+                        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                    int read = in.read(buffer, filled, buffer.length - filled);
+                    if (read < 0)
+                        endOfFile = true;
+                    else
+                        filled += read;
                 }
             }
-            currentPositions.clear();
-            currentPositions.addAll(nextPositions);
+
+            if (manifold == null)
+                throw new IOException("The diagram has no rows");
+            return manifold;
         }
+    }
+
+    // Starts the manifold on the first row or moves its beams through buffer[from, to).
+    private static Manifold nextRow(Manifold manifold, byte[] buffer, int from, int to) throws IOException {
+        if (to > from && buffer[to - 1] == '\r')
+            to--;
 
-        return String.valueOf(rejectsCount);
+        if (manifold != null) {
+            manifold.advance(buffer, from, to - from);
+            return manifold;
+        }
+
+        for (int pos = from; pos < to; pos++) {
+            if (buffer[pos] == 'S')
+                return new Manifold(to - from, pos - from);
+        }
+        throw new IOException("The first row has no start 'S'");
     }
-}
 
-static final class Part2 implements Part {
-    public String compute(List<String> lines) {
-        return "Not implemented";
+    // Moves every beam down through row[from, from + length).
+    void advance(byte[] row, int from, int length) {
+        if (exactTimelines == null && maxCount > Long.MAX_VALUE / 3)
+            switchToExact();
+
+        nextFront.clear();
+        maxCount = 0;
+
+        for (int pos = front.nextSetBit(0); pos >= 0; pos = front.nextSetBit(pos + 1)) {
+            switch (pos < length ? row[from + pos] : '.') {
+                case '.' -> moveTo(pos, pos);
+                case '^' -> {
+                    splits++;
+                    moveTo(pos, pos - 1);
+                    moveTo(pos, pos + 1);
+                }
+                default -> {
+                    // Anything else absorbs the beam.
+                }
+            }
+
+            timelines[pos] = 0;
+            if (exactTimelines != null)
+                exactTimelines[pos] = null;
+        }
+
+        var swapFront = front;
+        front = nextFront;
+        nextFront = swapFront;
+        var swapTimelines = timelines;
+        timelines = nextTimelines;
+        nextTimelines = swapTimelines;
+        var swapExact = exactTimelines;
+        exactTimelines = nextExactTimelines;
+        nextExactTimelines = swapExact;
+    }
+
+    private void moveTo(int from, int to) {
+        if (to < 0 || to >= nextTimelines.length)
+            return;
+
+        nextFront.set(to);
+        if (exactTimelines != null) {
+            var count = nextExactTimelines[to];
+            nextExactTimelines[to] = count == null
+                    ? exactTimelines[from]
+                    : count.add(exactTimelines[from]);
+        } else {
+            nextTimelines[to] += timelines[from];
+            maxCount = Math.max(maxCount, nextTimelines[to]);
+        }
+    }
+
+    private void switchToExact() {
+        exactTimelines = new BigInteger[timelines.length];
+        nextExactTimelines = new BigInteger[timelines.length];
+        for (int pos = front.nextSetBit(0); pos >= 0; pos = front.nextSetBit(pos + 1)) {
+            exactTimelines[pos] = BigInteger.valueOf(timelines[pos]);
+            timelines[pos] = 0;
+        }
+    }
+
+    long splits() {
+        return splits;
+    }
+
+    BigInteger timelines() {
+        var total = BigInteger.ZERO;
+        for (int pos = front.nextSetBit(0); pos >= 0; pos = front.nextSetBit(pos + 1)) {
+            total = total.add(exactTimelines != null
+                    ? exactTimelines[pos]
+                    : BigInteger.valueOf(timelines[pos]));
+        }
+        return total;
     }
 }
 
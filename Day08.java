@@ -25,24 +25,471 @@ sealed interface Part permits Part1, Part2 {
 }
 
 static final class Part1 implements Part {
+
+    // The example wires up its 10 closest pairs, the real input its 1000 closest.
+    private static final int EXAMPLE_SIZE = 20;
+
     public String compute(List<String> lines) {
-        record JunctionBox(int x, int y, int z) {}
+        var boxes = JunctionBoxes.parse(lines);
+        int connections = boxes.size() <= EXAMPLE_SIZE ? 10 : 1000;
 
-        List<JunctionBox> coordinates = lines.stream()
-                .map(line -> line.split(","))
-                .map(parts -> new JunctionBox(
-                        Integer.parseInt(parts[0]),
-                        Integer.parseInt(parts[1]),
-                        Integer.parseInt(parts[2])))
-                .toList();
+        var circuits = new DisjointSet(boxes.size());
+        for (long pair : boxes.closestPairs(connections)) {
+            circuits.union((int) (pair >>> 32), (int) pair);
+        }
 
-        return String.valueOf(coordinates);
+        int[] sizes = circuits.componentSizes();
+        long product = 1;
+        for (int i = 0; i < Math.min(3, sizes.length); i++) {
+            product *= sizes[i];
+        }
+        return String.valueOf(product);
     }
 }
 
 static final class Part2 implements Part {
     public String compute(List<String> lines) {
-        return "Not implemented";
+        var boxes = JunctionBoxes.parse(lines);
+        if (boxes.size() < 2)
+            return "0";
+
+        // The connection that joins the last two circuits is the heaviest spanning tree edge.
+        long pair = new KdTree(boxes).heaviestSpanningTreeEdge();
+        return String.valueOf((long) boxes.x[(int) (pair >>> 32)] * boxes.x[(int) pair]);
+    }
+}
+
+/**
+ * Junction box coordinates stored as primitive columns.
+ */
+static final class JunctionBoxes {
+
+    // Bits of a grid cell coordinate per axis, and of a box index, in a packed sort key.
+    private static final int CELL_BITS = 14;
+    private static final int INDEX_BITS = 21;
+
+    final int[] x;
+    final int[] y;
+    final int[] z;
+
+    JunctionBoxes(int[] x, int[] y, int[] z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+
+    static JunctionBoxes parse(List<String> lines) {
+        int n = lines.size();
+        int[] x = new int[n];
+        int[] y = new int[n];
+        int[] z = new int[n];
+
+        for (int i = 0; i < n; i++) {
+            String[] parts = lines.get(i).split(",");
+            x[i] = Integer.parseInt(parts[0]);
+            y[i] = Integer.parseInt(parts[1]);
+            z[i] = Integer.parseInt(parts[2]);
+        }
+        return new JunctionBoxes(x, y, z);
+    }
+
+    int size() {
+        return x.length;
+    }
+
+    long distanceSquared(int i, int j) {
+        long dx = (long) x[i] - x[j];
+        long dy = (long) y[i] - y[j];
+        long dz = (long) z[i] - z[j];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * The {@code k} globally shortest pairs, packed as {@code i << 32 | j}.
+     * <p>
+     * Boxes are hashed into a uniform grid with cells of side {@code r}, so every pair
+     * no longer than {@code r} lies in the same or adjacent cells. Those pairs go through a
+     * bounded max-heap of size {@code k}. If the heap fills up, it holds the answer, as all
+     * pairs that were not visited are longer than {@code r}; otherwise {@code r} doubles.
+     * The first {@code r} is sized so that about {@code k} pairs are expected within it.
+     */
+    long[] closestPairs(int k) {
+        int n = size();
+        k = (int) Math.min(k, (long) n * (n - 1) / 2);
+        if (k == 0)
+            return new long[0];
+        if (n >= 1 << INDEX_BITS)
+            throw new IllegalArgumentException("Too many junction boxes: " + n);
+
+        int[] min = {
+                Arrays.stream(x).min().orElseThrow(),
+                Arrays.stream(y).min().orElseThrow(),
+                Arrays.stream(z).min().orElseThrow() };
+        long extentX = (long) Arrays.stream(x).max().orElseThrow() - min[0] + 1L;
+        long extentY = (long) Arrays.stream(y).max().orElseThrow() - min[1] + 1L;
+        long extentZ = (long) Arrays.stream(z).max().orElseThrow() - min[2] + 1L;
+        double volume = (double) extentX * extentY * extentZ;
+        double radius = Math.cbrt(3 * k * volume / (2 * Math.PI * n * (double) n));
+
+        while (true) {
+            long cell = Math.max((long) Math.ceil(radius),
+                    Math.ceilDiv(Math.max(extentX, Math.max(extentY, extentZ)), 1L << CELL_BITS));
+            var heap = new PairHeap(k);
+            // Every pair within one cell side lies in adjacent cells.
+            long radiusSquared = cell * cell;
+
+            long[] sorted = new long[n];
+            for (int i = 0; i < n; i++) {
+                sorted[i] = cellKey(((long) x[i] - min[0]) / cell, ((long) y[i] - min[1]) / cell, ((long) z[i] - min[2]) / cell) << INDEX_BITS | i;
+            }
+            Arrays.sort(sorted);
+
+            for (int a = 0; a < n; a++) {
+                int i = (int) (sorted[a] & (1L << INDEX_BITS) - 1);
+                long cx = ((long) x[i] - min[0]) / cell;
+                long cy = ((long) y[i] - min[1]) / cell;
+                long cz = ((long) z[i] - min[2]) / cell;
+
+                for (int dx = -1; dx <= 1; dx++) {
+                    for (int dy = -1; dy <= 1; dy++) {
+                        for (int dz = -1; dz <= 1; dz++) {
+                            if (cx + dx < 0 || cy + dy < 0 || cz + dz < 0)
+                                continue;
+
+                            long key = cellKey(cx + dx, cy + dy, cz + dz);
+                            // Each pair once: only partners later in the sorted order.
+                            for (int b = Math.max(a + 1, lowerBound(sorted, key << INDEX_BITS));
+                                    b < n && sorted[b] >>> INDEX_BITS == key; b++) {
+                                int j = (int) (sorted[b] & (1L << INDEX_BITS) - 1);
+                                long distance = distanceSquared(i, j);
+                                if (distance <= radiusSquared)
+                                    heap.offer(distance, (long) Math.min(i, j) << 32 | Math.max(i, j));
+                            }
+                        }
+                    }
+                }
+            }
+
+            if (heap.size() == k)
+                return heap.pairs();
+            radius *= 2;
+        }
+    }
+
+    private static long cellKey(long cx, long cy, long cz) {
+        return (cx << CELL_BITS | cy) << CELL_BITS | cz;
+    }
+
+    private static int lowerBound(long[] sorted, long value) {
+        int lo = 0;
+        int hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
+
+// Max-heap on distance that keeps the capacity shortest pairs offered to it.
+static final class PairHeap {
+
+    private final long[] distances;
+    private final long[] pairs;
+    private int size;
+
+    PairHeap(int capacity) {
+        this.distances = new long[capacity];
+        this.pairs = new long[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void offer(long distance, long pair) {
+        if (size < distances.length) {
+            int i = size++;
+            while (i > 0 && distances[(i - 1) / 2] < distance) {
+                distances[i] = distances[(i - 1) / 2];
+                pairs[i] = pairs[(i - 1) / 2];
+                i = (i - 1) / 2;
+            }
+            distances[i] = distance;
+            pairs[i] = pair;
+        } else if (distance < distances[0]) {
+            int i = 0;
+            while (2 * i + 1 < size) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && distances[child + 1] > distances[child])
+                    child++;
+                if (distances[child] <= distance)
+                    break;
+                distances[i] = distances[child];
+                pairs[i] = pairs[child];
+                i = child;
+            }
+            distances[i] = distance;
+            pairs[i] = pair;
+        }
+    }
+
+    long[] pairs() {
+        return Arrays.copyOf(pairs, size);
+    }
+}
+
+/**
+ * Union-find over box indices with path halving and union by size.
+ */
+static final class DisjointSet {
+
+    private final int[] parent;
+    private final int[] size;
+    private int components;
+
+    DisjointSet(int n) {
+        this.parent = new int[n];
+        this.size = new int[n];
+        this.components = n;
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+            size[i] = 1;
+        }
+    }
+
+    int find(int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    // Returns false if i and j were already in the same circuit.
+    boolean union(int i, int j) {
+        int a = find(i);
+        int b = find(j);
+        if (a == b)
+            return false;
+
+        if (size[a] < size[b]) {
+            int swap = a;
+            a = b;
+            b = swap;
+        }
+        parent[b] = a;
+        size[a] += size[b];
+        components--;
+        return true;
+    }
+
+    int components() {
+        return components;
+    }
+
+    // Circuit sizes, largest first.
+    int[] componentSizes() {
+        int[] sizes = IntStream.range(0, parent.length)
+                .filter(i -> parent[i] == i)
+                .map(i -> -size[i])
+                .sorted()
+                .toArray();
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = -sizes[i];
+        }
+        return sizes;
+    }
+}
+
+/**
+ * Static k-d tree over the junction boxes for Borůvka's minimum spanning tree.
+ * <p>
+ * The tree is implicit: {@code order[lo, hi)} is a subtree whose root is the median
+ * {@code order[mid]} on axis {@code depth % 3}, with the smaller boxes to its left. Each
+ * Borůvka round labels every subtree with its circuit when all its boxes share one, so a
+ * nearest-neighbour search can skip whole subtrees of the searching box's own circuit.
+ */
+static final class KdTree {
+
+    private final JunctionBoxes boxes;
+    private final int[] order;
+    // Circuit shared by the subtree rooted at order[mid], or -1 if it spans several.
+    private final int[] subtreeCircuit;
+
+    KdTree(JunctionBoxes boxes) {
+        this.boxes = boxes;
+        this.order = IntStream.range(0, boxes.size()).toArray();
+        this.subtreeCircuit = new int[boxes.size()];
+        build(0, order.length, 0);
+    }
+
+    private void build(int lo, int hi, int depth) {
+        if (hi - lo <= 1)
+            return;
+
+        int mid = (lo + hi) >>> 1;
+        select(lo, hi, mid, depth % 3);
+        build(lo, mid, depth + 1);
+        build(mid + 1, hi, depth + 1);
+    }
+
+    // Quickselect: moves the k-th smallest box on the axis to order[k].
+    private void select(int lo, int hi, int k, int axis) {
+        while (hi - lo > 1) {
+            int pivot = coordinate(order[(lo + hi) >>> 1], axis);
+            int i = lo;
+            int j = hi - 1;
+            while (i <= j) {
+                while (coordinate(order[i], axis) < pivot) {
+                    i++;
+                }
+                while (coordinate(order[j], axis) > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int swap = order[i];
+                    order[i++] = order[j];
+                    order[j--] = swap;
+                }
+            }
+            if (k <= j) {
+                hi = j + 1;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private int coordinate(int box, int axis) {
+        return switch (axis) {
+            case 0 -> boxes.x[box];
+            case 1 -> boxes.y[box];
+            default -> boxes.z[box];
+        };
+    }
+
+    /**
+     * Runs Borůvka's algorithm and returns the heaviest edge of the minimum spanning tree,
+     * packed as {@code i << 32 | j}.
+     * <p>
+     * Every round finds, in parallel, each box's nearest box in another circuit, keeps the
+     * shortest such edge per circuit and merges along those edges, so the number of
+     * circuits at least halves per round. Edges are ordered by length, then by their
+     * packed indices, which keeps ties consistent and the chosen edges acyclic.
+     */
+    long heaviestSpanningTreeEdge() {
+        int n = boxes.size();
+        var circuits = new DisjointSet(n);
+        int[] circuit = new int[n];
+        long[] nearestDistance = new long[n];
+        long[] nearestPair = new long[n];
+        long[] bestDistance = new long[n];
+        long[] bestPair = new long[n];
+        long heaviestDistance = -1;
+        long heaviestPair = 0;
+
+        while (circuits.components() > 1) {
+            for (int i = 0; i < n; i++) {
+                circuit[i] = circuits.find(i);
+            }
+            labelSubtrees(0, n, circuit);
+
+            // The shortest edge found so far per circuit bounds the searches of its other boxes.
+            var circuitBound = new AtomicLongArray(n);
+            for (int i = 0; i < n; i++) {
+                circuitBound.set(i, Long.MAX_VALUE);
+            }
+
+            // Tree order keeps neighbouring boxes, which share bounds, on the same thread.
+            IntStream.range(0, n).parallel().map(a -> order[a]).forEach(i -> {
+                long[] best = { circuitBound.get(circuit[i]), Long.MAX_VALUE };
+                nearestForeign(i, circuit, 0, n, 0, best);
+                nearestDistance[i] = best[0];
+                nearestPair[i] = best[1];
+                if (best[1] != Long.MAX_VALUE)
+                    circuitBound.accumulateAndGet(circuit[i], best[0], Math::min);
+            });
+
+            Arrays.fill(bestDistance, Long.MAX_VALUE);
+            Arrays.fill(bestPair, Long.MAX_VALUE);
+            for (int i = 0; i < n; i++) {
+                int c = circuit[i];
+                // A box that found nothing below its circuit's bound reports no edge.
+                if (nearestPair[i] != Long.MAX_VALUE && isShorter(nearestDistance[i], nearestPair[i], bestDistance[c], bestPair[c])) {
+                    bestDistance[c] = nearestDistance[i];
+                    bestPair[c] = nearestPair[i];
+                }
+            }
+
+            for (int c = 0; c < n; c++) {
+                if (bestPair[c] == Long.MAX_VALUE)
+                    continue;
+
+                long pair = bestPair[c];
+                if (circuits.union((int) (pair >>> 32), (int) pair)
+                        && isShorter(heaviestDistance, heaviestPair, bestDistance[c], pair)) {
+                    heaviestDistance = bestDistance[c];
+                    heaviestPair = pair;
+                }
+            }
+        }
+
+        return heaviestPair;
+    }
+
+    private static boolean isShorter(long distance, long pair, long otherDistance, long otherPair) {
+        return distance < otherDistance || distance == otherDistance && pair < otherPair;
+    }
+
+    // Returns the circuit shared by order[lo, hi), or -1.
+    private int labelSubtrees(int lo, int hi, int[] circuit) {
+        if (lo >= hi)
+            return -2;
+
+        int mid = (lo + hi) >>> 1;
+        int label = circuit[order[mid]];
+        int left = labelSubtrees(lo, mid, circuit);
+        int right = labelSubtrees(mid + 1, hi, circuit);
+        if (left != -2 && left != label || right != -2 && right != label)
+            label = -1;
+
+        subtreeCircuit[mid] = label;
+        return label;
+    }
+
+    // Updates best = { distance, pair } with the boxes of order[lo, hi) outside i's circuit.
+    private void nearestForeign(int i, int[] circuit, int lo, int hi, int depth, long[] best) {
+        if (lo >= hi)
+            return;
+
+        int mid = (lo + hi) >>> 1;
+        if (subtreeCircuit[mid] == circuit[i])
+            return;
+
+        int j = order[mid];
+        if (circuit[j] != circuit[i]) {
+            long distance = boxes.distanceSquared(i, j);
+            long pair = (long) Math.min(i, j) << 32 | Math.max(i, j);
+            if (isShorter(distance, pair, best[0], best[1])) {
+                best[0] = distance;
+                best[1] = pair;
+            }
+        }
+
+        int axis = depth % 3;
+        long offset = (long) coordinate(i, axis) - coordinate(j, axis);
+        boolean leftFirst = offset < 0;
+        nearestForeign(i, circuit, leftFirst ? lo : mid + 1, leftFirst ? mid : hi, depth + 1, best);
+        // Boxes on the far side are at least |offset| away; ties still need a look.
+        if (offset * offset <= best[0])
+            nearestForeign(i, circuit, leftFirst ? mid + 1 : lo, leftFirst ? hi : mid, depth + 1, best);
     }
 }
 
@@ -26,47 +26,216 @@ sealed interface Part permits Part1, Part2 {
 
 static final class Part1 implements Part {
 
-    record RedTile(long x, long y) {}
-
     public String compute(List<String> lines) {
+        return String.valueOf(RedTiles.parse(lines).largestRectangle());
+    }
+}
+
+/**
+ * Red tile coordinates as primitive columns, in input order.
+ */
+static final class RedTiles {
+
+    final int[] x;
+    final int[] y;
+
+    RedTiles(int[] x, int[] y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    static RedTiles parse(List<String> lines) {
+        int[] x = new int[lines.size()];
+        int[] y = new int[lines.size()];
+        for (int i = 0; i < lines.size(); i++) {
+            String[] parts = lines.get(i).split(",");
+            x[i] = Integer.parseInt(parts[0].strip());
+            y[i] = Integer.parseInt(parts[1].strip());
+        }
+        return new RedTiles(x, y);
+    }
+
+    int size() {
+        return x.length;
+    }
+
+    static long area(long x1, long y1, long x2, long y2) {
+        return (Math.abs(x1 - x2) + 1) * (Math.abs(y1 - y2) + 1);
+    }
 
-        long maxArea = -1;
+    /**
+     * Largest rectangle with red tiles on two opposite corners.
+     * <p>
+     * Moving a corner further out never shrinks a rectangle, so the corners of the best one
+     * lie on the staircase frontiers of the tiles: the lower-left frontier paired with the
+     * upper-right one, or the upper-left paired with the lower-right. Only those pairs are
+     * compared, split across cores.
+     */
+    long largestRectangle() {
+        if (size() == 0)
+            return -1;
 
-        List<RedTile> points = lines.stream()
-                .map(line -> line.split(","))
-                .map(parts -> new RedTile(
-                        Integer.parseInt(parts[0].strip()),
-                        Integer.parseInt(parts[1].strip())))
-                .collect(Collectors.toList());
+        long[] sorted = new long[size()];
+        for (int i = 0; i < size(); i++) {
+            sorted[i] = pack(x[i], y[i]);
+        }
+        Arrays.sort(sorted);
 
-        for (RedTile it1 : points) {
-            for (RedTile it2 : points) {
-                var localArea = calcArea(it1, it2);
+        return Math.max(
+                largestBetween(frontier(sorted, true, true), frontier(sorted, false, false)),
+                largestBetween(frontier(sorted, true, false), frontier(sorted, false, true)));
+    }
 
-                if (localArea > maxArea)
-                    maxArea = localArea;
+    /**
+     * Tiles that no other tile beats towards one corner: smallest or largest x and y. The
+     * sweep runs over tiles sorted by x then y, so a few dominated tiles with equal x may
+     * slip in, which only adds candidates.
+     */
+    private static long[] frontier(long[] sorted, boolean minX, boolean minY) {
+        var frontier = LongStream.builder();
+        int best = minY ? Integer.MAX_VALUE : Integer.MIN_VALUE;
+        boolean first = true;
+
+        for (int k = 0; k < sorted.length; k++) {
+            long tile = sorted[minX ? k : sorted.length - 1 - k];
+            int tileY = unpackY(tile);
+            if (first || (minY ? tileY < best : tileY > best)) {
+                frontier.add(tile);
+                best = tileY;
+                first = false;
             }
         }
+        return frontier.build().toArray();
+    }
+
+    private static long largestBetween(long[] corners, long[] opposites) {
+        return Arrays.stream(corners)
+                .parallel()
+                .map(corner -> {
+                    long best = 0;
+                    for (long opposite : opposites) {
+                        best = Math.max(best, area(unpackX(corner), unpackY(corner), unpackX(opposite), unpackY(opposite)));
+                    }
+                    return best;
+                })
+                .max()
+                .orElse(-1);
+    }
+
+    /**
+     * Largest rectangle with red tiles on two opposite corners that only covers red or green
+     * tiles, i.e. lies inside the loop the red tiles trace in input order.
+     * <p>
+     * The loop is rasterised on a compressed grid: every distinct x (and y) of a red tile
+     * gets a cell at an odd index, the gap up to the next one a cell at the even index in
+     * between, and an empty ring surrounds it all. The loop's edges are drawn, the outside
+     * is flood-filled from the ring, and a 2D prefix sum over outside cells then validates
+     * any candidate rectangle in O(1). A gap between consecutive values holds no tiles, so
+     * its cells still carry the fill but weigh nothing in the sum. Candidate pairs are
+     * checked in parallel.
+     */
+    long largestInsideRectangle() {
+        int n = size();
+        int[] xs = Arrays.stream(x).sorted().distinct().toArray();
+        int[] ys = Arrays.stream(y).sorted().distinct().toArray();
+        int width = 2 * xs.length + 1;
+        int height = 2 * ys.length + 1;
+        int[] column = new int[n];
+        int[] row = new int[n];
+        for (int i = 0; i < n; i++) {
+            column[i] = 2 * Arrays.binarySearch(xs, x[i]) + 1;
+            row[i] = 2 * Arrays.binarySearch(ys, y[i]) + 1;
+        }
+
+        boolean[] loop = new boolean[width * height];
+        for (int i = 0; i < n; i++) {
+            int next = (i + 1) % n;
+            for (int r = Math.min(row[i], row[next]); r <= Math.max(row[i], row[next]); r++) {
+                for (int c = Math.min(column[i], column[next]); c <= Math.max(column[i], column[next]); c++) {
+                    loop[r * width + c] = true;
+                }
+            }
+        }
+
+        boolean[] outside = new boolean[width * height];
+        int[] queue = new int[width * height];
+        int tail = 0;
+        outside[0] = true;
+        queue[tail++] = 0;
+        for (int head = 0; head < tail; head++) {
+            int cell = queue[head];
+            int r = cell / width;
+            int c = cell % width;
+            int[] neighbors = {
+                    r > 0 ? cell - width : -1,
+                    r + 1 < height ? cell + width : -1,
+                    c > 0 ? cell - 1 : -1,
+                    c + 1 < width ? cell + 1 : -1 };
+            for (int neighbor : neighbors) {
+                if (neighbor >= 0 && !outside[neighbor] && !loop[neighbor]) {
+                    outside[neighbor] = true;
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+
+        // outsideBefore[r][c] counts the outside cells in rows < r and columns < c.
+        int[] outsideBefore = new int[(height + 1) * (width + 1)];
+        for (int r = 0; r < height; r++) {
+            for (int c = 0; c < width; c++) {
+                boolean counts = outside[r * width + c] && holdsTiles(c, xs) && holdsTiles(r, ys);
+                outsideBefore[(r + 1) * (width + 1) + c + 1] = (counts ? 1 : 0)
+                        + outsideBefore[r * (width + 1) + c + 1]
+                        + outsideBefore[(r + 1) * (width + 1) + c]
+                        - outsideBefore[r * (width + 1) + c];
+            }
+        }
+
+        return IntStream.range(0, n)
+                .parallel()
+                .mapToLong(i -> {
+                    long best = 0;
+                    for (int j = i + 1; j < n; j++) {
+                        int top = Math.min(row[i], row[j]);
+                        int bottom = Math.max(row[i], row[j]) + 1;
+                        int left = Math.min(column[i], column[j]);
+                        int right = Math.max(column[i], column[j]) + 1;
+                        int outsideCells = outsideBefore[bottom * (width + 1) + right]
+                                - outsideBefore[top * (width + 1) + right]
+                                - outsideBefore[bottom * (width + 1) + left]
+                                + outsideBefore[top * (width + 1) + left];
+                        if (outsideCells == 0)
+                            best = Math.max(best, area(x[i], y[i], x[j], y[j]));
+                    }
+                    return best;
+                })
+                .max()
+                .orElse(0);
+    }
+
+    // Gap cells between neighbouring values cover no tiles and must not reject a rectangle.
+    private static boolean holdsTiles(int index, int[] values) {
+        int k = index / 2;
+        return index % 2 == 1 || k == 0 || k == values.length || values[k] - values[k - 1] > 1;
+    }
+
+    // Sorts as (x, y) for any signed coordinates.
+    private static long pack(int x, int y) {
+        return (long) x << 32 | (y ^ Integer.MIN_VALUE) & 0xFFFFFFFFL;
+    }
 
-        return String.valueOf(maxArea);
+    private static int unpackX(long tile) {
+        return (int) (tile >> 32);
     }
 
-    long calcArea(RedTile rt1, RedTile rt2) {
-        System.out.printf("(%s,%s)(%s,%s)\t[width: %s, height: %s] - area: %s%n",
-                rt1.x,
-                rt1.y,
-                rt2.x,
-                rt2.y,
-                Math.abs(rt1.x - rt2.x) + 1,
-                Math.abs(rt1.y - rt2.y) + 1,
-                (Math.abs(rt1.x - rt2.x) + 1) * (Math.abs(rt1.y - rt2.y) + 1));
-        return (Math.abs(rt1.x - rt2.x) + 1) * (Math.abs(rt1.y - rt2.y) + 1);
+    private static int unpackY(long tile) {
+        return (int) tile ^ Integer.MIN_VALUE;
     }
 }
 
 static final class Part2 implements Part {
     public String compute(List<String> lines) {
-        return "Not implemented";
+        return String.valueOf(RedTiles.parse(lines).largestInsideRectangle());
     }
 }
 
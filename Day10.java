@@ -4,7 +4,10 @@ import static java.lang.System.err;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
@@ -15,6 +18,15 @@ void main(String... args) {
 
     try (Stream<String> lineStream = Files.lines(Path.of(input))) {
         List<String> lines = lineStream.toList();
+
+        // "timing" lists every machine's Part 2 presses and solve time, slowest first.
+        if (args.length > 1 && args[1].equals("timing")) {
+            for (var timing : Part2.timings(lines)) {
+                println(timing);
+            }
+            return;
+        }
+
         println("""
                 Part 1: %s
                 Part 2: %s
@@ -32,13 +44,410 @@ sealed interface Part permits Part1, Part2 {
 
 static final class Part1 implements Part {
     public String compute(List<String> lines) {
-        return "Not implemented";
+        long presses = lines.parallelStream()
+                .filter(line -> !line.isBlank())
+                .map(Machine::parse)
+                .mapToLong(Machine::fewestLightPresses)
+                .sum();
+
+        return String.valueOf(presses);
     }
 }
 
 static final class Part2 implements Part {
     public String compute(List<String> lines) {
-        return "Not implemented";
+        long presses = lines.parallelStream()
+                .filter(line -> !line.isBlank())
+                .map(Machine::parse)
+                .mapToLong(Machine::fewestJoltagePresses)
+                .sum();
+
+        return String.valueOf(presses);
+    }
+
+    record Timing(int machine, long presses, long nanos) {
+        @Override
+        public String toString() {
+            return "Machine %d: %d presses in %.3f ms".formatted(machine, presses, nanos / 1e6);
+        }
+    }
+
+    static List<Timing> timings(List<String> lines) {
+        List<String> machines = lines.stream().filter(line -> !line.isBlank()).toList();
+        return IntStream.range(0, machines.size())
+                .parallel()
+                .mapToObj(i -> {
+                    long start = System.nanoTime();
+                    long presses = Machine.parse(machines.get(i)).fewestJoltagePresses();
+                    return new Timing(i, presses, System.nanoTime() - start);
+                })
+                .sorted((a, b) -> Long.compare(b.nanos(), a.nanos()))
+                .toList();
+    }
+}
+
+/**
+ * One machine: its indicator light pattern, the lights each button toggles, and the
+ * joltage requirements.
+ */
+record Machine(int lights, long target, int[][] buttons, int[] joltages) {
+
+    // [.##.] (3) (1,3) (2) {3,5,4,7}
+    static Machine parse(String line) {
+        String[] parts = line.strip().split("\\s+");
+        String pattern = parts[0].substring(1, parts[0].length() - 1);
+        if (pattern.length() >= Long.SIZE)
+            throw new IllegalArgumentException("Too many lights: " + pattern.length());
+
+        long target = 0;
+        for (int light = 0; light < pattern.length(); light++) {
+            if (pattern.charAt(light) == '#')
+                target |= 1L << light;
+        }
+
+        int[][] buttons = Arrays.stream(parts, 1, parts.length - 1)
+                .map(button -> numbers(button))
+                .toArray(int[][]::new);
+        for (int[] button : buttons) {
+            for (int light : button) {
+                if (light < 0 || light >= pattern.length())
+                    throw new IllegalArgumentException("Button toggles unknown light " + light + ": " + line);
+            }
+        }
+
+        return new Machine(pattern.length(), target, buttons, numbers(parts[parts.length - 1]));
+    }
+
+    private static int[] numbers(String group) {
+        return Arrays.stream(group.substring(1, group.length() - 1).split(","))
+                .mapToInt(Integer::parseInt)
+                .toArray();
+    }
+
+    /**
+     * Fewest presses that turn on exactly the target lights.
+     * <p>
+     * Pressing a button twice undoes it, so this is {@code A x = target} over GF(2), with a
+     * column of {@code A} per button. Every light's equation is packed into a {@code long}
+     * over the buttons and brought to reduced row echelon form with XOR row operations.
+     * The solutions are then one particular solution plus any combination of the null
+     * space basis vectors, one per free button, which are walked in Gray code order so each
+     * step is a single XOR and the weight is a {@link Long#bitCount}.
+     */
+    long fewestLightPresses() {
+        int columns = buttons.length;
+        if (columns >= Long.SIZE)
+            throw new IllegalArgumentException("Too many buttons: " + columns);
+
+        // Bits 0..columns-1 hold the buttons, bit `columns` the target.
+        long[] rows = new long[lights];
+        for (int button = 0; button < columns; button++) {
+            for (int light : buttons[button]) {
+                rows[light] |= 1L << button;
+            }
+        }
+        for (int light = 0; light < lights; light++) {
+            if ((target >>> light & 1) != 0)
+                rows[light] |= 1L << columns;
+        }
+
+        int[] pivotRow = new int[columns];
+        Arrays.fill(pivotRow, -1);
+        int rank = 0;
+        for (int column = 0; column < columns && rank < lights; column++) {
+            int pivot = rank;
+            while (pivot < lights && (rows[pivot] >>> column & 1) == 0) {
+                pivot++;
+            }
+            if (pivot == lights)
+                continue;
+
+            long swap = rows[pivot];
+            rows[pivot] = rows[rank];
+            rows[rank] = swap;
+            for (int row = 0; row < lights; row++) {
+                if (row != rank && (rows[row] >>> column & 1) != 0)
+                    rows[row] ^= rows[rank];
+            }
+            pivotRow[column] = rank++;
+        }
+
+        // A zero row with a target bit left over cannot be satisfied.
+        for (int row = rank; row < lights; row++) {
+            if (rows[row] != 0)
+                throw new IllegalStateException("No button combination reaches the lights of " + this);
+        }
+
+        long particular = 0;
+        for (int column = 0; column < columns; column++) {
+            if (pivotRow[column] >= 0 && (rows[pivotRow[column]] >>> columns & 1) != 0)
+                particular |= 1L << column;
+        }
+
+        long[] basis = new long[columns - rank];
+        int free = 0;
+        for (int column = 0; column < columns; column++) {
+            if (pivotRow[column] >= 0)
+                continue;
+
+            long vector = 1L << column;
+            for (int pivot = 0; pivot < columns; pivot++) {
+                if (pivotRow[pivot] >= 0 && (rows[pivotRow[pivot]] >>> column & 1) != 0)
+                    vector |= 1L << pivot;
+            }
+            basis[free++] = vector;
+        }
+
+        long solution = particular;
+        long fewest = Long.bitCount(solution);
+        for (long step = 1; step < 1L << basis.length; step++) {
+            solution ^= basis[Long.numberOfTrailingZeros(step)];
+            fewest = Math.min(fewest, Long.bitCount(solution));
+        }
+        return fewest;
+    }
+
+    /**
+     * Fewest presses that bring every counter exactly to its joltage requirement.
+     * <p>
+     * This is the integer program {@code min sum(x)} subject to {@code A x = joltages},
+     * {@code x >= 0}. Fraction-free Gaussian elimination on {@code long} rows writes every
+     * pivot button as {@code (b - sum(a_f x_f)) / d} over the free buttons {@code f}. A
+     * depth-first branch and bound then enumerates the free buttons up to their caps (a
+     * button can never be pressed more often than its smallest counter requires) and
+     * prunes a branch when a pivot can no longer reach zero or the linear relaxation of
+     * the total cannot beat the best solution found.
+     */
+    long fewestJoltagePresses() {
+        int columns = buttons.length;
+        int rowCount = joltages.length;
+
+        // rows[r][0..columns-1] are the coefficients, rows[r][columns] the requirement.
+        long[][] rows = new long[rowCount][columns + 1];
+        for (int button = 0; button < columns; button++) {
+            for (int counter : buttons[button]) {
+                rows[counter][button] = 1;
+            }
+        }
+        for (int counter = 0; counter < rowCount; counter++) {
+            rows[counter][columns] = joltages[counter];
+        }
+
+        int[] caps = new int[columns];
+        for (int button = 0; button < columns; button++) {
+            caps[button] = Arrays.stream(buttons[button]).map(counter -> joltages[counter]).min().orElse(0);
+        }
+
+        int[] pivotColumns = new int[rowCount];
+        boolean[] isPivot = new boolean[columns];
+        int rank = 0;
+        for (int column = 0; column < columns && rank < rowCount; column++) {
+            int pivot = rank;
+            while (pivot < rowCount && rows[pivot][column] == 0) {
+                pivot++;
+            }
+            if (pivot == rowCount)
+                continue;
+
+            long[] swap = rows[pivot];
+            rows[pivot] = rows[rank];
+            rows[rank] = swap;
+            if (rows[rank][column] < 0)
+                scale(rows[rank], -1);
+
+            for (int row = 0; row < rowCount; row++) {
+                if (row == rank || rows[row][column] == 0)
+                    continue;
+
+                long factor = rows[row][column];
+                long pivotValue = rows[rank][column];
+                for (int k = 0; k <= columns; k++) {
+                    rows[row][k] = rows[row][k] * pivotValue - rows[rank][k] * factor;
+                }
+                normalize(rows[row]);
+            }
+            normalize(rows[rank]);
+            pivotColumns[rank++] = column;
+            isPivot[column] = true;
+        }
+
+        for (int row = rank; row < rowCount; row++) {
+            if (rows[row][columns] != 0)
+                throw new IllegalStateException("No button presses reach the joltages of " + this);
+        }
+
+        // Narrow buttons first: they fix the most pivots with the fewest branches.
+        int[] free = IntStream.range(0, columns)
+                .filter(column -> !isPivot[column])
+                .boxed()
+                .sorted(Comparator.comparingInt(column -> caps[column]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        var search = new JoltageSearch(rows, rank, columns, pivotColumns, free, caps);
+        search.branch(0, new long[free.length]);
+
+        if (search.best == Long.MAX_VALUE)
+            throw new IllegalStateException("No button presses reach the joltages of " + this);
+        return search.best;
+    }
+
+    private static void scale(long[] row, long factor) {
+        for (int k = 0; k < row.length; k++) {
+            row[k] *= factor;
+        }
+    }
+
+    // Divides the row by the gcd of its entries to keep the fraction-free values small.
+    private static void normalize(long[] row) {
+        long gcd = 0;
+        for (long value : row) {
+            gcd = gcd(gcd, Math.abs(value));
+        }
+        if (gcd > 1) {
+            for (int k = 0; k < row.length; k++) {
+                row[k] /= gcd;
+            }
+        }
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    // Branch and bound over the free buttons of a reduced system.
+    private static final class JoltageSearch {
+
+        private final long[][] rows;
+        private final int rank;
+        private final int rhs;
+        private final int[] free;
+        private final int[] caps;
+        // Each row's positive pivot coefficient, and that times the pivot button's cap.
+        private final long[] pivots;
+        private final long[] ceilings;
+        // Objective: constant + sum(weights[f] * x_f), with the pivots substituted.
+        private final double constant;
+        private final double[] weights;
+        long best = Long.MAX_VALUE;
+
+        JoltageSearch(long[][] rows, int rank, int columns, int[] pivotColumns, int[] free, int[] caps) {
+            this.rows = rows;
+            this.rank = rank;
+            this.rhs = columns;
+            this.free = free;
+            this.caps = caps;
+            this.pivots = new long[rank];
+            this.ceilings = new long[rank];
+            this.weights = new double[free.length];
+
+            for (int row = 0; row < rank; row++) {
+                pivots[row] = rows[row][pivotColumns[row]];
+                ceilings[row] = pivots[row] * caps[pivotColumns[row]];
+            }
+
+            double constant = 0;
+            for (int row = 0; row < rank; row++) {
+                constant += (double) rows[row][rhs] / pivots[row];
+            }
+            this.constant = constant;
+            for (int f = 0; f < free.length; f++) {
+                weights[f] = 1;
+                for (int row = 0; row < rank; row++) {
+                    weights[f] -= (double) rows[row][free[f]] / pivots[row];
+                }
+            }
+        }
+
+        void branch(int depth, long[] values) {
+            if (!feasible(depth, values) || lowerBound(depth, values) >= best)
+                return;
+
+            if (depth == free.length) {
+                long total = 0;
+                for (long value : values) {
+                    total += value;
+                }
+                for (int row = 0; row < rank; row++) {
+                    long numerator = remainder(row, values, depth);
+                    long pivot = pivots[row];
+                    if (numerator % pivot != 0)
+                        return;
+                    total += numerator / pivot;
+                }
+                best = Math.min(best, total);
+                return;
+            }
+
+            long lo = 0;
+            long hi = caps[free[depth]];
+            for (int row = 0; row < rank && lo <= hi; row++) {
+                long a = rows[row][free[depth]];
+                if (a == 0)
+                    continue;
+                // Range of the pivot numerator once the later buttons take their extreme values.
+                long numerator = remainder(row, values, depth);
+                long highest = numerator;
+                long lowest = numerator;
+                for (int f = depth + 1; f < free.length; f++) {
+                    long term = rows[row][free[f]] * caps[free[f]];
+                    highest -= Math.min(0, term);
+                    lowest -= Math.max(0, term);
+                }
+                // 0 <= pivot <= its cap, with pivot = (numerator - a * x) / pivots[row].
+                if (a > 0) {
+                    hi = Math.min(hi, Math.floorDiv(highest, a));
+                    lo = Math.max(lo, Math.ceilDiv(lowest - ceilings[row], a));
+                } else {
+                    lo = Math.max(lo, Math.ceilDiv(highest, a));
+                    hi = Math.min(hi, Math.floorDiv(lowest - ceilings[row], a));
+                }
+            }
+
+            // Try the cheaper end of the range first so good totals prune sooner.
+            boolean ascending = weights[depth] >= 0;
+            for (long i = 0; i <= hi - lo; i++) {
+                values[depth] = ascending ? lo + i : hi - i;
+                branch(depth + 1, values);
+            }
+        }
+
+        // b - sum(a_f x_f) over the free buttons assigned so far.
+        private long remainder(int row, long[] values, int depth) {
+            long numerator = rows[row][rhs];
+            for (int f = 0; f < depth; f++) {
+                numerator -= rows[row][free[f]] * values[f];
+            }
+            return numerator;
+        }
+
+        // Can every pivot still be non-negative for some choice of the unassigned buttons?
+        private boolean feasible(int depth, long[] values) {
+            for (int row = 0; row < rank; row++) {
+                long highest = remainder(row, values, depth);
+                for (int f = depth; f < free.length; f++) {
+                    highest -= Math.min(0, rows[row][free[f]] * caps[free[f]]);
+                }
+                if (highest < 0)
+                    return false;
+            }
+            return true;
+        }
+
+        // Smallest whole total the relaxation allows for the unassigned buttons.
+        private long lowerBound(int depth, long[] values) {
+            double bound = constant;
+            for (int f = 0; f < free.length; f++) {
+                bound += f < depth
+                        ? weights[f] * values[f]
+                        : Math.min(0, weights[f] * caps[free[f]]);
+            }
+            return (long) Math.ceil(bound - 1e-9);
+        }
     }
 }
 